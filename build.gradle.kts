@@ -3,6 +3,7 @@ plugins {
   id("net.kyori.indra") version "3.1.1"
   id("net.kyori.indra.publishing") version "3.1.1"
   id("net.kyori.indra.licenser.spotless") version "3.1.1"
+  id("me.champeau.jmh") version "0.6.8"
   `java-library`
   `maven-publish`
 }
@@ -20,6 +21,7 @@ dependencies {
 
   compileOnly("org.checkerframework", "checker-qual", "3.19.0")
 
+  testAnnotationProcessor(project(":events-processor"))
   testImplementation("org.junit.jupiter", "junit-jupiter-api", "5.8.2")
   testRuntimeOnly("org.junit.jupiter", "junit-jupiter-engine", "5.8.2")
   testRuntimeOnly("org.slf4j", "slf4j-simple", "2.0.7")
@@ -27,6 +29,62 @@ dependencies {
 
 tasks.getByName<Test>("test") { useJUnitPlatform() }
 
+// Multi-release jar: classes in src/main/javaN replace their main counterpart when running on Java N or newer
+fun multireleaseSourceSet(version: Int) {
+  val main = sourceSets.main.get()
+  val sourceSet = sourceSets.create("java$version") {
+    java.setSrcDirs(listOf("src/main/java$version"))
+    compileClasspath += main.output + main.compileClasspath
+  }
+
+  tasks.named<JavaCompile>(sourceSet.compileJavaTaskName) {
+    javaCompiler.set(javaToolchains.compilerFor { languageVersion.set(JavaLanguageVersion.of(version)) })
+    options.release.set(version)
+  }
+
+  tasks.jar {
+    into("META-INF/versions/$version") { from(sourceSet.output) }
+    manifest { attributes("Multi-Release" to "true") }
+  }
+
+  // tests in src/test/javaN run on Java N, with the classes of src/main/javaN in front of their main counterpart
+  val test = sourceSets.test.get()
+  val testSourceSet = sourceSets.create("java${version}Test") {
+    java.setSrcDirs(listOf("src/test/java$version"))
+    compileClasspath = sourceSet.output + test.output + test.compileClasspath
+    runtimeClasspath = output + sourceSet.output + test.runtimeClasspath
+  }
+
+  tasks.named<JavaCompile>(testSourceSet.compileJavaTaskName) {
+    javaCompiler.set(javaToolchains.compilerFor { languageVersion.set(JavaLanguageVersion.of(version)) })
+    options.release.set(version)
+  }
+
+  val testTask = tasks.register<Test>("testJava$version") {
+    description = "Runs the tests of the Java $version classes."
+    group = LifecycleBasePlugin.VERIFICATION_GROUP
+    testClassesDirs = testSourceSet.output.classesDirs
+    classpath = testSourceSet.runtimeClasspath
+    javaLauncher.set(javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(version)) })
+    useJUnitPlatform()
+  }
+
+  tasks.check { dependsOn(testTask) }
+}
+
+multireleaseSourceSet(11)
+multireleaseSourceSet(21)
+
+jmh {
+  jmhVersion.set("1.36")
+  // report the allocation rate next to the throughput of every benchmark
+  profilers.add("gc")
+  warmupIterations.set(3)
+  iterations.set(5)
+  fork.set(1)
+  resultFormat.set("JSON")
+}
+
 indra {
   github("GeyserMC", "Events") {
     ci(true)
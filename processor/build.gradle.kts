@@ -0,0 +1,45 @@
+plugins {
+  id("java")
+  id("net.kyori.indra")
+  id("net.kyori.indra.publishing")
+  id("net.kyori.indra.licenser.spotless")
+  `java-library`
+  `maven-publish`
+}
+
+group = rootProject.group
+
+version = rootProject.version
+
+repositories { mavenCentral() }
+
+dependencies {
+  // the tests compile listeners against the annotations of the bus
+  testImplementation(rootProject)
+  testImplementation("org.junit.jupiter", "junit-jupiter-api", "5.8.2")
+  testRuntimeOnly("org.junit.jupiter", "junit-jupiter-engine", "5.8.2")
+}
+
+tasks.getByName<Test>("test") { useJUnitPlatform() }
+
+indra {
+  github("GeyserMC", "Events") {
+    ci(true)
+    issues(true)
+    scm(true)
+  }
+
+  mitLicense()
+
+  javaVersions { target(8) }
+
+  publishSnapshotsTo("geysermc", "https://repo.opencollab.dev/maven-snapshots")
+  publishReleasesTo("geysermc", "https://repo.opencollab.dev/maven-releases")
+}
+
+spotless {
+  java {
+    palantirJavaFormat()
+    formatAnnotations()
+  }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code SubscriberIndex} for every class that declares {@code Subscribe} methods, so that registering a
+ * listener doesn't need reflection and doesn't have to generate a handler for every method.
+ * <p>
+ * A class only gets an index when all of its subscribe methods can be called from generated code in the same
+ * package. Otherwise, e.g. when a subscribe method is private or declares checked exceptions, the class keeps being
+ * registered through reflection.
+ */
+@SupportedAnnotationTypes(SubscriberIndexProcessor.SUBSCRIBE)
+public final class SubscriberIndexProcessor extends AbstractProcessor {
+    static final String SUBSCRIBE = "org.geysermc.event.subscribe.Subscribe";
+    static final String SUBSCRIBER_INDEX = "org.geysermc.event.subscribe.SubscriberIndex";
+    static final String POST_ORDER = "org.geysermc.event.PostOrder";
+    static final String SUFFIX = "_SubscriberIndex";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement subscribe = processingEnv.getElementUtils().getTypeElement(SUBSCRIBE);
+        if (subscribe == null) {
+            return false;
+        }
+
+        Map<TypeElement, List<ExecutableElement>> methodsByClass = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(subscribe)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            methodsByClass
+                    .computeIfAbsent((TypeElement) element.getEnclosingElement(), key -> new ArrayList<>())
+                    .add((ExecutableElement) element);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : methodsByClass.entrySet()) {
+            TypeElement listener = entry.getKey();
+            String reason = unsupportedReason(listener, entry.getValue());
+            if (reason != null) {
+                processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.NOTE,
+                                "No subscriber index generated, " + reason + ". It will be registered through reflection",
+                                listener);
+                continue;
+            }
+            writeIndex(listener, entry.getValue());
+        }
+        return false;
+    }
+
+    /**
+     * Returns why no index can be generated for the given listener class, or null if an index can be generated.
+     */
+    private String unsupportedReason(TypeElement listener, List<ExecutableElement> methods) {
+        if (listener.getKind() != ElementKind.CLASS && listener.getKind() != ElementKind.ENUM) {
+            return "subscribe methods are only registered for classes";
+        }
+
+        Element current = listener;
+        while (current instanceof TypeElement) {
+            TypeElement type = (TypeElement) current;
+            if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "the class is local or anonymous";
+            }
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                return "the class or one of its enclosing classes is private";
+            }
+            if (!type.getTypeParameters().isEmpty()) {
+                return "the class or one of its enclosing classes is generic";
+            }
+            current = type.getEnclosingElement();
+        }
+
+        PackageElement listenerPackage = processingEnv.getElementUtils().getPackageOf(listener);
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                return "subscribe method " + method.getSimpleName() + " is private";
+            }
+            if (method.getModifiers().contains(Modifier.STATIC)) {
+                return "subscribe method " + method.getSimpleName() + " is static";
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                return "subscribe method " + method.getSimpleName() + " is generic";
+            }
+            // the method reference of the index can't be a BiConsumer then
+            for (TypeMirror thrown : method.getThrownTypes()) {
+                if (isChecked(thrown)) {
+                    return "subscribe method " + method.getSimpleName() + " declares checked exceptions";
+                }
+            }
+            // methods with more than one parameter are ignored, like they are when registering through reflection
+            if (method.getParameters().isEmpty()) {
+                return "subscribe method " + method.getSimpleName() + " has no parameters";
+            }
+            TypeMirror parameter = method.getParameters().get(0).asType();
+            if (parameter.getKind() == TypeKind.TYPEVAR) {
+                return "the event of subscribe method " + method.getSimpleName() + " is a type variable";
+            }
+            if (!isAccessible(parameter, listenerPackage)) {
+                return "the event of subscribe method " + method.getSimpleName() + " isn't accessible from package "
+                        + listenerPackage.getQualifiedName();
+            }
+            if (!isAccessible(filterType(method), listenerPackage)) {
+                return "the filter of subscribe method " + method.getSimpleName() + " isn't accessible from package "
+                        + listenerPackage.getQualifiedName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the given type can be referenced by an index in the given package. A protected nested class of
+     * a superclass of the listener can't, because the index doesn't extend that superclass.
+     */
+    private boolean isAccessible(TypeMirror type, PackageElement from) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType(), from);
+        }
+        Element element = processingEnv.getTypeUtils().asElement(type);
+        while (element instanceof TypeElement) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!element.getModifiers().contains(Modifier.PUBLIC)
+                    && !processingEnv.getElementUtils().getPackageOf(element).equals(from)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private boolean isChecked(TypeMirror thrown) {
+        for (String unchecked : new String[] {"java.lang.RuntimeException", "java.lang.Error"}) {
+            TypeElement uncheckedType = processingEnv.getElementUtils().getTypeElement(unchecked);
+            if (processingEnv.getTypeUtils().isSubtype(thrown, uncheckedType.asType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeIndex(TypeElement listener, List<ExecutableElement> methods) {
+        String packageName =
+                processingEnv.getElementUtils().getPackageOf(listener).getQualifiedName().toString();
+        String binaryName =
+                processingEnv.getElementUtils().getBinaryName(listener).toString();
+        String flatName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        // keeps the '$' of nested classes, replacing it could collide with a top-level class of the same name
+        String indexName = flatName + SUFFIX;
+        String qualifiedIndexName = packageName.isEmpty() ? indexName : packageName + "." + indexName;
+
+        // allows a hand-written index to take precedence over the generated one
+        if (processingEnv.getElementUtils().getTypeElement(qualifiedIndexName) != null) {
+            return;
+        }
+
+        String listenerName = listener.getQualifiedName().toString();
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * Subscriber index of {@link ")
+                .append(listenerName)
+                .append("}, generated by ")
+                .append(SubscriberIndexProcessor.class.getName())
+                .append(".\n */\n");
+        source.append("public final class ")
+                .append(indexName)
+                .append(" implements ")
+                .append(SUBSCRIBER_INDEX)
+                .append('<')
+                .append(listenerName)
+                .append("> {\n");
+        source.append("    @Override\n    @SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+        source.append("    public void collect(")
+                .append(SUBSCRIBER_INDEX)
+                .append(".Collector<")
+                .append(listenerName)
+                .append("> collector) {\n");
+
+        for (ExecutableElement method : methods) {
+            if (method.getParameters().size() > 1) {
+                continue;
+            }
+            TypeMirror eventType = processingEnv
+                    .getTypeUtils()
+                    .erasure(method.getParameters().get(0).asType());
+
+            source.append("        collector.accept(")
+                    .append(eventType)
+                    .append(".class, ")
+                    .append(SUBSCRIBER_INDEX)
+                    .append(".subscribe(")
+                    .append(POST_ORDER)
+                    .append('.')
+                    .append(annotationValue(method, "postOrder"))
+                    .append(", ")
+                    .append(annotationValue(method, "ignoreCancelled"))
+                    .append(", ")
+                    .append(filterType(method))
+                    .append(".class, ")
+                    .append(annotationValue(method, "offThread"))
+                    .append("), ")
+                    .append(listenerName)
+                    .append("::")
+                    .append(method.getSimpleName())
+                    .append(");\n");
+        }
+        source.append("    }\n}\n");
+
+        try (Writer writer =
+                processingEnv.getFiler().createSourceFile(qualifiedIndexName, listener).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException exception) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Failed to write subscriber index " + qualifiedIndexName + ": " + exception.getMessage(),
+                            listener);
+        }
+    }
+
+    /**
+     * Returns the erased filter class of the Subscribe annotation of the given method, including the default.
+     */
+    private TypeMirror filterType(ExecutableElement method) {
+        return processingEnv.getTypeUtils().erasure((TypeMirror) annotationValueObject(method, "filter"));
+    }
+
+    /**
+     * Returns the value of the given member of the Subscribe annotation of the given method, including defaults. Enum
+     * constants are returned as their name.
+     */
+    private String annotationValue(ExecutableElement method, String member) {
+        Object value = annotationValueObject(method, member);
+        if (value instanceof Element) {
+            // enum constant
+            return ((Element) value).getSimpleName().toString();
+        }
+        return String.valueOf(value);
+    }
+
+    private Object annotationValueObject(ExecutableElement method, String member) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!type.getQualifiedName().contentEquals(SUBSCRIBE)) {
+                continue;
+            }
+
+            Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(member)) {
+                    return entry.getValue().getValue();
+                }
+            }
+        }
+        throw new IllegalStateException("Subscribe annotation of " + method + " has no " + member);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.processor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+
+public class SubscriberIndexProcessorTest {
+    @Test
+    public void indexIsGenerated() throws IOException {
+        Compilation compilation = compile(source(
+                "listeners.SimpleListener",
+                "package listeners;",
+                "public class SimpleListener {",
+                "    @org.geysermc.event.subscribe.Subscribe",
+                "    public void onEvent(org.geysermc.event.Event event) {}",
+                "}"));
+        assertTrue(compilation.generated("listeners/SimpleListener_SubscriberIndex.java"));
+    }
+
+    @Test
+    public void checkedExceptionsFallBackToReflection() throws IOException {
+        Compilation compilation = compile(source(
+                "listeners.ThrowingListener",
+                "package listeners;",
+                "public class ThrowingListener {",
+                "    @org.geysermc.event.subscribe.Subscribe",
+                "    public void onEvent(org.geysermc.event.Event event) throws java.io.IOException {}",
+                "",
+                "    @org.geysermc.event.subscribe.Subscribe",
+                "    public void onOtherEvent(org.geysermc.event.Event event) throws IllegalStateException {}",
+                "}"));
+        assertFalse(compilation.generated("listeners/ThrowingListener_SubscriberIndex.java"));
+        compilation.assertNote("subscribe method onEvent declares checked exceptions");
+    }
+
+    @Test
+    public void inaccessibleEventFallsBackToReflection() throws IOException {
+        // the listener can use the protected event of its superclass, but its index can't
+        Compilation compilation = compile(
+                source(
+                        "events.BaseListener",
+                        "package events;",
+                        "public class BaseListener {",
+                        "    protected static class ProtectedEvent implements org.geysermc.event.Event {}",
+                        "}"),
+                source(
+                        "listeners.ProtectedEventListener",
+                        "package listeners;",
+                        "public class ProtectedEventListener extends events.BaseListener {",
+                        "    @org.geysermc.event.subscribe.Subscribe",
+                        "    public void onEvent(ProtectedEvent event) {}",
+                        "}"));
+        assertFalse(compilation.generated("listeners/ProtectedEventListener_SubscriberIndex.java"));
+        compilation.assertNote("the event of subscribe method onEvent isn't accessible from package listeners");
+    }
+
+    @Test
+    public void privateEventFallsBackToReflection() throws IOException {
+        Compilation compilation = compile(source(
+                "listeners.PrivateEventListener",
+                "package listeners;",
+                "public class PrivateEventListener {",
+                "    private static class PrivateEvent implements org.geysermc.event.Event {}",
+                "",
+                "    @org.geysermc.event.subscribe.Subscribe",
+                "    public void onEvent(PrivateEvent event) {}",
+                "}"));
+        assertFalse(compilation.generated("listeners/PrivateEventListener_SubscriberIndex.java"));
+        compilation.assertNote("the event of subscribe method onEvent isn't accessible from package listeners");
+    }
+
+    private static JavaFileObject source(String className, String... lines) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        String content = String.join("\n", lines);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+    /**
+     * Compiles the given sources with the processor and fails if they don't compile, which includes the generated
+     * indexes.
+     */
+    private static Compilation compile(JavaFileObject... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler, "the tests have to run on a JDK");
+
+        Path output = Files.createTempDirectory("subscriber-index");
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(output.toFile()));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singleton(output.toFile()));
+
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task =
+                    compiler.getTask(null, fileManager, diagnostics, options, null, Arrays.asList(sources));
+            task.setProcessors(Collections.singletonList(new SubscriberIndexProcessor()));
+            boolean success = task.call();
+            assertTrue(success, () -> "compilation failed: " + diagnostics.getDiagnostics());
+
+            List<String> generated = new ArrayList<>();
+            try (Stream<Path> files = Files.walk(output)) {
+                files.filter(file -> file.toString().endsWith(".java"))
+                        .forEach(file -> generated.add(
+                                output.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/")));
+            }
+            return new Compilation(diagnostics.getDiagnostics(), generated);
+        } finally {
+            try (Stream<Path> files = Files.walk(output)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    private static final class Compilation {
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        private final List<String> generated;
+
+        Compilation(List<Diagnostic<? extends JavaFileObject>> diagnostics, List<String> generated) {
+            this.diagnostics = diagnostics;
+            this.generated = generated;
+        }
+
+        boolean generated(String path) {
+            return generated.contains(path);
+        }
+
+        void assertNote(String reason) {
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+                if (diagnostic.getKind() == Diagnostic.Kind.NOTE
+                        && diagnostic.getMessage(null).contains(reason)) {
+                    return;
+                }
+            }
+            throw new AssertionError("no note containing '" + reason + "' in " + diagnostics);
+        }
+    }
+}
@@ -1 +1,5 @@
 rootProject.name = "events"
+
+include("events-processor")
+
+project(":events-processor").projectDir = file("processor")
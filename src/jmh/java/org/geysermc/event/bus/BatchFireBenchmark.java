@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.geysermc.event.Event;
+import org.geysermc.event.FireResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares firing a batch of events of the same class one by one with {@link BaseBus#fireAllSilently(Iterable,
+ * boolean)}, in both event-major and subscriber-major order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchFireBenchmark {
+    @Param({"1", "10", "100"})
+    public int subscribers;
+
+    @Param({"64"})
+    public int batchSize;
+
+    private BenchmarkBuses.Bus bus;
+    private List<Event> events;
+
+    @Setup
+    public void setup() {
+        bus = new BenchmarkBuses.Bus();
+        BenchmarkEvents.subscribe(bus, subscribers, false, 0);
+        events = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            events.add(BenchmarkEvents.create(false, 0));
+        }
+        bus.fireAllSilently(events);
+    }
+
+    @Benchmark
+    public void fireSilentlyEach(Blackhole blackhole) {
+        for (Event event : events) {
+            blackhole.consume(bus.fireSilently(event));
+        }
+    }
+
+    @Benchmark
+    public FireResult fireAllSilently() {
+        return bus.fireAllSilently(events, false);
+    }
+
+    @Benchmark
+    public FireResult fireAllSilentlySubscriberMajor() {
+        return bus.fireAllSilently(events, true);
+    }
+}
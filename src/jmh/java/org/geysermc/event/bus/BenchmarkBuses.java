@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.geysermc.event.Event;
+import org.geysermc.event.PostOrder;
+import org.geysermc.event.bus.impl.BusOptions;
+import org.geysermc.event.bus.impl.EventBusImpl;
+import org.geysermc.event.bus.impl.OwnedEventBusImpl;
+import org.geysermc.event.subscribe.OwnedSubscriber;
+import org.geysermc.event.subscribe.Subscribe;
+import org.geysermc.event.subscribe.Subscriber;
+import org.geysermc.event.subscribe.impl.OwnedSubscriberImpl;
+import org.geysermc.event.subscribe.impl.SubscriberImpl;
+
+/**
+ * Minimal concrete bus implementations, mirroring what a platform would provide.
+ */
+final class BenchmarkBuses {
+    private BenchmarkBuses() {}
+
+    static final class Bus extends EventBusImpl<Event, BusSubscriber<? extends Event>> {
+        Bus() {}
+
+        Bus(BusOptions options) {
+            super(options);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <H, T extends Event, B extends Subscriber<T>> B makeSubscription(
+                Class<T> eventClass, Subscribe subscribe, H listener, BiConsumer<H, T> handler) {
+            return (B) new BusSubscriber<>(
+                    eventClass, subscribe.postOrder(), subscribe.ignoreCancelled(), listener, handler);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T extends Event, B extends Subscriber<T>> B makeSubscription(
+                Class<T> eventClass, Consumer<T> handler, PostOrder postOrder) {
+            return (B) new BusSubscriber<>(eventClass, handler, postOrder);
+        }
+    }
+
+    static final class BusSubscriber<E> extends SubscriberImpl<E> {
+        BusSubscriber(Class<E> eventClass, Consumer<E> handler, PostOrder postOrder) {
+            super(eventClass, handler, postOrder);
+        }
+
+        <H> BusSubscriber(
+                Class<E> eventClass,
+                PostOrder postOrder,
+                boolean ignoreCancelled,
+                H handlerInstance,
+                BiConsumer<H, E> handler) {
+            super(eventClass, postOrder, ignoreCancelled, handlerInstance, handler);
+        }
+    }
+
+    static final class OwnedBus extends OwnedEventBusImpl<String, Event, OwnedBusSubscriber<? extends Event>> {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <L, T extends Event, B extends OwnedSubscriber<String, T>> B makeSubscription(
+                String owner, Class<T> eventClass, Subscribe subscribe, L listener, BiConsumer<L, T> handler) {
+            return (B) new OwnedBusSubscriber<>(
+                    owner, eventClass, subscribe.postOrder(), subscribe.ignoreCancelled(), listener, handler);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T extends Event, B extends OwnedSubscriber<String, T>> B makeSubscription(
+                String owner, Class<T> eventClass, Consumer<T> handler, PostOrder postOrder) {
+            return (B) new OwnedBusSubscriber<>(owner, eventClass, handler, postOrder);
+        }
+    }
+
+    static final class OwnedBusSubscriber<E> extends OwnedSubscriberImpl<String, E> {
+        OwnedBusSubscriber(String owner, Class<E> eventClass, Consumer<E> handler, PostOrder postOrder) {
+            super(owner, eventClass, handler, postOrder);
+        }
+
+        <H> OwnedBusSubscriber(
+                String owner,
+                Class<E> eventClass,
+                PostOrder postOrder,
+                boolean ignoreCancelled,
+                H handlerInstance,
+                BiConsumer<H, E> handler) {
+            super(owner, eventClass, postOrder, ignoreCancelled, handlerInstance, handler);
+        }
+    }
+}
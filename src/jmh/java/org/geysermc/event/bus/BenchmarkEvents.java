@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import java.util.function.Consumer;
+import org.geysermc.event.Event;
+import org.geysermc.event.PostOrder;
+import org.geysermc.event.subscribe.Subscribe;
+import org.geysermc.event.util.AbstractCancellable;
+
+/**
+ * Event hierarchies and listeners shared by the benchmarks. Every hierarchy is four levels deep (depth 0 to 3), so
+ * benchmarks can pick the depth they fire at and spread their subscribers over the levels above it.
+ */
+final class BenchmarkEvents {
+    static final Consumer<Event> NOOP = event -> {};
+
+    private BenchmarkEvents() {}
+
+    @SuppressWarnings("unchecked")
+    static Class<? extends Event>[] hierarchy(boolean cancellable) {
+        if (cancellable) {
+            return new Class[] {
+                CancellableEvent0.class, CancellableEvent1.class, CancellableEvent2.class, CancellableEvent3.class
+            };
+        }
+        return new Class[] {PlainEvent0.class, PlainEvent1.class, PlainEvent2.class, PlainEvent3.class};
+    }
+
+    static Event create(boolean cancellable, int depth) {
+        try {
+            return hierarchy(cancellable)[depth].getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Subscribes a no-op handler for every level of the given hierarchy up to the given depth, round-robin.
+     */
+    static void subscribe(BenchmarkBuses.Bus bus, int count, boolean cancellable, int depth) {
+        Class<? extends Event>[] hierarchy = hierarchy(cancellable);
+        PostOrder[] orders = PostOrder.values();
+        for (int i = 0; i < count; i++) {
+            subscribe(bus, hierarchy[i % (depth + 1)], orders[i % orders.length]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Event> void subscribe(BenchmarkBuses.Bus bus, Class<T> eventClass, PostOrder order) {
+        bus.subscribe(eventClass, (Consumer<T>) NOOP, order);
+    }
+
+    public static class PlainEvent0 implements Event {}
+
+    public static class PlainEvent1 extends PlainEvent0 {}
+
+    public static class PlainEvent2 extends PlainEvent1 {}
+
+    public static class PlainEvent3 extends PlainEvent2 {}
+
+    public static class CancellableEvent0 extends AbstractCancellable implements Event {}
+
+    public static class CancellableEvent1 extends CancellableEvent0 {}
+
+    public static class CancellableEvent2 extends CancellableEvent1 {}
+
+    public static class CancellableEvent3 extends CancellableEvent2 {}
+
+    public static final class Listener {
+        @Subscribe(postOrder = PostOrder.FIRST)
+        public void first(PlainEvent0 event) {}
+
+        @Subscribe(postOrder = PostOrder.EARLY)
+        public void early(PlainEvent1 event) {}
+
+        @Subscribe
+        public void normal(PlainEvent2 event) {}
+
+        @Subscribe(postOrder = PostOrder.LATE, ignoreCancelled = true)
+        public void late(CancellableEvent0 event) {}
+
+        @Subscribe(postOrder = PostOrder.LAST)
+        private void last(CancellableEvent3 event) {}
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.geysermc.event.Event;
+import org.geysermc.event.FireResult;
+import org.geysermc.event.bus.BenchmarkEvents.PlainEvent0;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures firing while another thread keeps subscribing and unsubscribing to the fired event, as happens when
+ * short-lived subscriptions (e.g. per session) come and go. When keyed, every subscriber is keyed by its own session
+ * and a single session matches the fired event.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChurnBenchmark {
+    private static final Function<PlainEvent0, Integer> SESSION = event -> 0;
+
+    @Param({"10", "1000"})
+    public int subscribers;
+
+    @Param({"0", "3"})
+    public int depth;
+
+    @Param({"false", "true"})
+    public boolean keyed;
+
+    private BenchmarkBuses.Bus bus;
+    private Event event;
+
+    @Setup
+    public void setup() {
+        bus = new BenchmarkBuses.Bus();
+        if (keyed) {
+            for (int session = 0; session < subscribers; session++) {
+                bus.subscribe(PlainEvent0.class, SESSION, session, event -> {});
+            }
+        } else {
+            BenchmarkEvents.subscribe(bus, subscribers, false, depth);
+        }
+        event = BenchmarkEvents.create(false, depth);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public FireResult fire() {
+        return bus.fireSilently(event);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void subscribeUnsubscribe() {
+        BenchmarkBuses.BusSubscriber<PlainEvent0> subscriber = keyed
+                ? bus.subscribe(PlainEvent0.class, SESSION, subscribers, event -> {})
+                : bus.subscribe(PlainEvent0.class, event -> {});
+        bus.unsubscribe(subscriber);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import java.util.concurrent.TimeUnit;
+import org.geysermc.event.Event;
+import org.geysermc.event.FireResult;
+import org.geysermc.event.bus.impl.BusOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures {@link BaseBus#fireSilently(Object)} with a stable set of subscribers, for a single thread and for multiple
+ * threads firing the same event class at the same time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FireBenchmark {
+    @Param({"0", "1", "10", "1000"})
+    public int subscribers;
+
+    @Param({"0", "3"})
+    public int depth;
+
+    @Param({"false", "true"})
+    public boolean cancellable;
+
+    @Param({"false", "true"})
+    public boolean generatedDispatchers;
+
+    private BenchmarkBuses.Bus bus;
+    private Event event;
+
+    @Setup
+    public void setup() {
+        bus = new BenchmarkBuses.Bus(BusOptions.builder()
+                .generatedDispatchers(generatedDispatchers)
+                .build());
+        BenchmarkEvents.subscribe(bus, subscribers, cancellable, depth);
+        event = BenchmarkEvents.create(cancellable, depth);
+        // make sure the subscribers are resolved before measuring
+        bus.fireSilently(event);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public FireResult fireSilently() {
+        return bus.fireSilently(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public FireResult fireSilentlyFourThreads() {
+        return bus.fireSilently(event);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public FireResult fireSilentlyAllThreads() {
+        return bus.fireSilently(event);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import java.util.concurrent.TimeUnit;
+import org.geysermc.event.bus.BenchmarkEvents.PlainEvent0;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the registration side of the bus: scanning and registering listeners, subscribing consumers and removing
+ * everything an owner registered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RegisterBenchmark {
+    private static final String OWNER = "extension";
+
+    @Param({"1", "100"})
+    public int listeners;
+
+    private BenchmarkBuses.Bus bus;
+    private BenchmarkBuses.OwnedBus ownedBus;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        bus = new BenchmarkBuses.Bus();
+        ownedBus = new BenchmarkBuses.OwnedBus();
+    }
+
+    @Benchmark
+    public void registerListeners() {
+        for (int i = 0; i < listeners; i++) {
+            bus.register(new BenchmarkEvents.Listener());
+        }
+        bus.unregisterAll();
+    }
+
+    @Benchmark
+    public void subscribeUnsubscribe() {
+        BenchmarkBuses.BusSubscriber<PlainEvent0> subscriber = bus.subscribe(PlainEvent0.class, event -> {});
+        bus.unsubscribe(subscriber);
+    }
+
+    @Benchmark
+    public void registerOwnedListeners() {
+        for (int i = 0; i < listeners; i++) {
+            ownedBus.register(OWNER, new BenchmarkEvents.Listener());
+        }
+        ownedBus.unregisterAll(OWNER);
+    }
+
+    @Benchmark
+    public void registerAllOwnedListeners() {
+        Object[] batch = new Object[listeners];
+        for (int i = 0; i < listeners; i++) {
+            batch[i] = new BenchmarkEvents.Listener();
+        }
+        ownedBus.registerAll(OWNER, batch);
+        ownedBus.unregisterAll(OWNER);
+    }
+
+    /**
+     * Only measures {@link OwnedEventBus#unregisterAll(Object)}, the listeners are registered before every invocation.
+     */
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public static class UnregisterAll {
+        @Param({"1", "100"})
+        public int listeners;
+
+        private BenchmarkBuses.OwnedBus bus;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            bus = new BenchmarkBuses.OwnedBus();
+            for (int i = 0; i < listeners; i++) {
+                bus.register(OWNER, new BenchmarkEvents.Listener());
+            }
+            // resolve the dispatch tables so unregistering has something to invalidate
+            bus.fireSilently(new BenchmarkEvents.PlainEvent3());
+            bus.fireSilently(new BenchmarkEvents.CancellableEvent3());
+        }
+
+        @Benchmark
+        public void unregisterAll() {
+            bus.unregisterAll(OWNER);
+        }
+    }
+}
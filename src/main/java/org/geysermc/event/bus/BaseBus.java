@@ -25,7 +25,9 @@
 package org.geysermc.event.bus;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.geysermc.event.AsyncEvent;
 import org.geysermc.event.FireResult;
 import org.geysermc.event.subscribe.Subscriber;
 
@@ -37,8 +39,23 @@ public interface BaseBus<E, S extends Subscriber<? extends E>> {
      */
     void unsubscribe(@NonNull S subscription);
 
+    /**
+     * Runs the given changes as a single batch. Subscribers that are added or removed by the calling thread while
+     * running the changes only take effect once the batch ends, and then all at once. This means that events fired by
+     * other threads either see none or all of the changes, and that the subscribers of every affected event are only
+     * resolved once instead of after every change. If the changes throw, the changes made until then are applied.
+     * <p>
+     * Calling this while already in a batch makes the changes part of the outer batch.
+     *
+     * @param changes the changes to make
+     */
+    void batch(@NonNull Runnable changes);
+
     /**
      * Fires the given event and log all exceptions that occur while executing this event.
+     * <p>
+     * When the bus queues its fires, this only queues the event and returns an empty result. The event is then fired
+     * on one of the consumer threads of the bus.
      *
      * @param event the event to fire
      */
@@ -52,6 +69,80 @@ public interface BaseBus<E, S extends Subscriber<? extends E>> {
      */
     FireResult fireSilently(@NonNull E event);
 
+    /**
+     * Fires the given events in order and log all exceptions that occur while executing these events.
+     *
+     * @param events the events to fire
+     * @return the combined result of firing the given events
+     * @see #fireAllSilently(Iterable, boolean)
+     */
+    FireResult fireAll(@NonNull Iterable<? extends E> events);
+
+    /**
+     * Fires the given events in order silently, this is the same as calling {@link #fireSilently(Object)} for every
+     * event. The subscribers of consecutive events of the same class are only looked up once.
+     *
+     * @param events the events to fire
+     * @return the combined result of firing the given events
+     * @see #fireAllSilently(Iterable, boolean)
+     */
+    FireResult fireAllSilently(@NonNull Iterable<? extends E> events);
+
+    /**
+     * Fires the given events silently. Every event sees the same subscribers in the same order as when it would've
+     * been fired by itself, and the result contains the first exception that every subscriber threw. Exceptions that
+     * a subscriber threw for later events are added to the first as suppressed exceptions.
+     * <p>
+     * When subscriberMajor is true, a subscriber is called with every event of a run of consecutive events of the
+     * same class before the next subscriber is called. This is faster for large batches of the same event, but
+     * subscribers can no longer rely on seeing the events one after the other, e.g. a LAST subscriber of the first
+     * event is called after the FIRST subscriber of the second event.
+     *
+     * @param events the events to fire
+     * @param subscriberMajor whether every subscriber should handle a run of events before the next subscriber
+     * @return the combined result of firing the given events
+     */
+    FireResult fireAllSilently(@NonNull Iterable<? extends E> events, boolean subscriberMajor);
+
+    /**
+     * Defers the given event until the next {@link #flush()}, e.g. to the next server tick. This can be called from
+     * any thread. When the bus has a coalescing policy for the class of the event, the event replaces the deferred
+     * event with the same key, so subscribers only see the latest of a burst of redundant events.
+     *
+     * @param event the event to fire later
+     */
+    void fireLater(@NonNull E event);
+
+    /**
+     * Fires every event that was deferred by {@link #fireLater(Object)} before this call, in order, and logs all
+     * exceptions that occur while executing these events. Events that are deferred while flushing are fired by the
+     * next flush. This is meant to be called by a single thread, e.g. once per server tick.
+     *
+     * @return the combined result of firing the deferred events
+     */
+    FireResult flush();
+
+    /**
+     * Stops the consumer threads of a bus that queues its fires, after they fired every event that was queued before
+     * this call. {@link #fire(Object)} throws an {@link IllegalStateException} afterwards, and fires that race with
+     * this call may be rejected as well. This does nothing when the bus doesn't queue its fires.
+     */
+    void shutdown();
+
+    /**
+     * Fires the given event on the async executor of this bus and log all exceptions that occur while executing
+     * this event. The subscribers are called in the same order and with the same cancellation behaviour as
+     * {@link #fire(Object)}, but not on the calling thread. This is mainly meant for {@link AsyncEvent}s.
+     * <p>
+     * Async fires run concurrently and can finish in any order, unless the bus is configured to order the event class
+     * per key. Then the events with the same key are fired one after the other, in the order of the calls to this
+     * method.
+     *
+     * @param event the event to fire
+     * @return a future that completes with the result of firing the given event
+     */
+    @NonNull CompletableFuture<FireResult> fireAsync(@NonNull E event);
+
     /**
      * Gets the subscriptions for the given event class.
      *
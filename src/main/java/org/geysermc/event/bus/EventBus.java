@@ -25,6 +25,8 @@
 package org.geysermc.event.bus;
 
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.geysermc.event.PostOrder;
 import org.geysermc.event.subscribe.Subscriber;
@@ -37,10 +39,106 @@ public interface EventBus<E, S extends Subscriber<? extends E>> extends BaseBus<
      */
     void register(@NonNull Object listener);
 
+    /**
+     * Registers events for all the given listeners as a single batch, see {@link #batch(Runnable)}.
+     *
+     * @param listeners the listeners
+     */
+    void registerAll(@NonNull Object... listeners);
+
     @NonNull <T extends E, U extends Subscriber<T>> U subscribe(@NonNull Class<T> eventClass, @NonNull Consumer<T> consumer);
 
     @NonNull <T extends E, U extends Subscriber<T>> U subscribe(
             @NonNull Class<T> eventClass, @NonNull Consumer<T> consumer, @NonNull PostOrder postOrder);
 
+    /**
+     * Subscribes to the given event, optionally off-thread. An off-thread consumer is called on the off-thread
+     * executor of the bus and the fire doesn't wait for it, see
+     * {@link org.geysermc.event.subscribe.Subscribe#offThread()}.
+     *
+     * @param eventClass the class of the event
+     * @param consumer   the consumer for handling the event
+     * @param postOrder  the order of the subscriber
+     * @param offThread  whether the consumer should be called off-thread
+     * @param <T>        the event class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder,
+            boolean offThread);
+
+    /**
+     * Subscribes to the given event, but the consumer is only called for events that pass the given filter. The filter
+     * is tested before the subscribers of the event are called, and only once per fire for all the subscribers that
+     * use the same filter instance. When it rejects the event, none of those subscribers are called.
+     *
+     * @param eventClass the class of the event
+     * @param filter     the filter that the events have to pass
+     * @param consumer   the consumer for handling the event
+     * @param <T>        the event class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass, @NonNull Predicate<? super T> filter, @NonNull Consumer<T> consumer);
+
+    /**
+     * Subscribes to the given event, but the consumer is only called for events that pass the given filter. See
+     * {@link #subscribe(Class, Predicate, Consumer)}.
+     *
+     * @param eventClass the class of the event
+     * @param filter     the filter that the events have to pass
+     * @param consumer   the consumer for handling the event
+     * @param postOrder  the order of the subscriber
+     * @param <T>        the event class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass,
+            @NonNull Predicate<? super T> filter,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder);
+
+    /**
+     * Subscribes to the given event, but the consumer is only called for events whose key equals the given key. The
+     * bus extracts the key once per fire and looks up the matching subscribers, which is much cheaper than having many
+     * subscribers that each check the key themselves. Subscribers that should share the extraction have to use the
+     * same key extractor instance.
+     *
+     * @param eventClass   the class of the event
+     * @param keyExtractor extracts the key of an event, may return null if an event has no key
+     * @param key          the key that the events have to match
+     * @param consumer     the consumer for handling the event
+     * @param <T>          the event class
+     * @param <K>          the key class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, K, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass,
+            @NonNull Function<? super T, ? extends K> keyExtractor,
+            @NonNull K key,
+            @NonNull Consumer<T> consumer);
+
+    /**
+     * Subscribes to the given event, but the consumer is only called for events whose key equals the given key. See
+     * {@link #subscribe(Class, Function, Object, Consumer)}.
+     *
+     * @param eventClass   the class of the event
+     * @param keyExtractor extracts the key of an event, may return null if an event has no key
+     * @param key          the key that the events have to match
+     * @param consumer     the consumer for handling the event
+     * @param postOrder    the order of the subscriber
+     * @param <T>          the event class
+     * @param <K>          the key class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, K, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass,
+            @NonNull Function<? super T, ? extends K> keyExtractor,
+            @NonNull K key,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder);
+
     void unregisterAll();
 }
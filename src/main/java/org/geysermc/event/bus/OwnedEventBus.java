@@ -26,6 +26,8 @@ package org.geysermc.event.bus;
 
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.geysermc.event.PostOrder;
 import org.geysermc.event.subscribe.OwnedSubscriber;
@@ -68,6 +70,107 @@ public interface OwnedEventBus<O, E, S extends OwnedSubscriber<O, ? extends E>>
             @NonNull Consumer<T> consumer,
             @NonNull PostOrder postOrder);
 
+    /**
+     * Subscribes to the given event, optionally off-thread. An off-thread consumer is called on the off-thread
+     * executor of the bus and the fire doesn't wait for it, see
+     * {@link org.geysermc.event.subscribe.Subscribe#offThread()}.
+     *
+     * @param owner      the extension to subscribe the event to
+     * @param eventClass the class of the event
+     * @param consumer   the consumer for handling the event
+     * @param postOrder  the order of the subscriber
+     * @param offThread  whether the consumer should be called off-thread
+     * @param <T>        the event class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder,
+            boolean offThread);
+
+    /**
+     * Subscribes to the given event, but the consumer is only called for events that pass the given filter. The filter
+     * is tested before the subscribers of the event are called, and only once per fire for all the subscribers that
+     * use the same filter instance. When it rejects the event, none of those subscribers are called.
+     *
+     * @param owner      the extension to subscribe the event to
+     * @param eventClass the class of the event
+     * @param filter     the filter that the events have to pass
+     * @param consumer   the consumer for handling the event
+     * @param <T>        the event class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Predicate<? super T> filter,
+            @NonNull Consumer<T> consumer);
+
+    /**
+     * Subscribes to the given event, but the consumer is only called for events that pass the given filter. See
+     * {@link #subscribe(Object, Class, Predicate, Consumer)}.
+     *
+     * @param owner      the extension to subscribe the event to
+     * @param eventClass the class of the event
+     * @param filter     the filter that the events have to pass
+     * @param consumer   the consumer for handling the event
+     * @param postOrder  the order of the subscriber
+     * @param <T>        the event class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Predicate<? super T> filter,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder);
+
+    /**
+     * Subscribes to the given event, but the consumer is only called for events whose key equals the given key. The
+     * bus extracts the key once per fire and looks up the matching subscribers, which is much cheaper than having many
+     * subscribers that each check the key themselves. Subscribers that should share the extraction have to use the
+     * same key extractor instance.
+     *
+     * @param owner        the extension to subscribe the event to
+     * @param eventClass   the class of the event
+     * @param keyExtractor extracts the key of an event, may return null if an event has no key
+     * @param key          the key that the events have to match
+     * @param consumer     the consumer for handling the event
+     * @param <T>          the event class
+     * @param <K>          the key class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, K, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Function<? super T, ? extends K> keyExtractor,
+            @NonNull K key,
+            @NonNull Consumer<T> consumer);
+
+    /**
+     * Subscribes to the given event, but the consumer is only called for events whose key equals the given key. See
+     * {@link #subscribe(Object, Class, Function, Object, Consumer)}.
+     *
+     * @param owner        the extension to subscribe the event to
+     * @param eventClass   the class of the event
+     * @param keyExtractor extracts the key of an event, may return null if an event has no key
+     * @param key          the key that the events have to match
+     * @param consumer     the consumer for handling the event
+     * @param postOrder    the order of the subscriber
+     * @param <T>          the event class
+     * @param <K>          the key class
+     * @return the event subscription
+     */
+    @NonNull <T extends E, K, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Function<? super T, ? extends K> keyExtractor,
+            @NonNull K key,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder);
+
     /**
      * Registers events for the given listener.
      *
@@ -77,7 +180,15 @@ public interface OwnedEventBus<O, E, S extends OwnedSubscriber<O, ? extends E>>
     void register(@NonNull O owner, @NonNull Object listener);
 
     /**
-     * Unregisters all events from a given owner.
+     * Registers events for all the given listeners as a single batch, see {@link #batch(Runnable)}.
+     *
+     * @param owner     the extension registering the events
+     * @param listeners the listeners
+     */
+    void registerAll(@NonNull O owner, @NonNull Object... listeners);
+
+    /**
+     * Unregisters all events from a given owner. The events are unregistered as a single batch.
      *
      * @param owner the extension
      */
@@ -25,29 +25,51 @@
 package org.geysermc.event.bus.impl;
 
 import com.google.common.base.Preconditions;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimaps;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
 import com.google.common.reflect.TypeToken;
 import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.AsyncEvent;
+import org.geysermc.event.Cancellable;
 import org.geysermc.event.FireResult;
+import org.geysermc.event.PostOrder;
 import org.geysermc.event.bus.BaseBus;
+import org.geysermc.event.bus.impl.metrics.BusMetrics;
+import org.geysermc.event.bus.impl.util.EventHierarchy;
+import org.geysermc.event.bus.impl.util.FlightRecorderEvents;
+import org.geysermc.event.bus.impl.util.KeyedSerialExecutor;
 import org.geysermc.event.bus.impl.util.Utils;
+import org.geysermc.event.bus.impl.watchdog.SubscriberWatchdog;
 import org.geysermc.event.subscribe.Subscribe;
 import org.geysermc.event.subscribe.Subscriber;
+import org.geysermc.event.subscribe.SubscriberIndex;
 import org.geysermc.event.util.TriConsumer;
 import org.lanternpowered.lmbda.LambdaFactory;
 import org.slf4j.Logger;
@@ -56,127 +78,454 @@ import org.slf4j.LoggerFactory;
 @SuppressWarnings("UnstableApiUsage")
 abstract class BaseBusImpl<E, S extends Subscriber<? extends E>> implements BaseBus<E, S> {
     private static final MethodHandles.Lookup CALLER = MethodHandles.lookup();
+    private static final PostOrder[] ORDERS = PostOrder.values();
+    /**
+     * The buffer that keyed fires collect their matching subscribers in, see {@link #borrowMatching(KeyedRoutes)}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final ThreadLocal<Subscriber[][]> MATCHING_BUFFER = new ThreadLocal<>();
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<BaseBusImpl, Map> DISPATCH_TABLES =
+            AtomicReferenceFieldUpdater.newUpdater(BaseBusImpl.class, Map.class, "dispatchTables");
+
+    /**
+     * The subscribe methods of every listener class, including those declared by its superclasses. A listener class
+     * is only scanned once, registering more instances of the same class reuses the handlers.
+     */
+    private static final ClassValue<List<SubscriptionTemplate>> SUBSCRIPTION_TEMPLATES =
+            new ClassValue<List<SubscriptionTemplate>>() {
+                @Override
+                protected List<SubscriptionTemplate> computeValue(Class<?> listenerClass) {
+                    return scanSubscriptions(listenerClass);
+                }
+            };
+
+    /**
+     * The filter instance of every filter class referenced by {@link Subscribe#filter()}. The instances are shared, so
+     * all the subscribers with the same filter class are grouped and the filter is only tested once per fire.
+     */
+    private static final ClassValue<Predicate<Object>> FILTERS = new ClassValue<Predicate<Object>>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Predicate<Object> computeValue(Class<?> filterClass) {
+            try {
+                Constructor<?> constructor = filterClass.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return (Predicate<Object>) constructor.newInstance();
+            } catch (ReflectiveOperationException exception) {
+                throw new IllegalArgumentException(
+                        "Filter " + filterClass.getName() + " needs a constructor without parameters", exception);
+            }
+        }
+    };
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private final SetMultimap<Class<?>, Subscriber<?>> subscribers =
-            Multimaps.synchronizedSetMultimap(HashMultimap.create());
+    /**
+     * The subscribers of every event class. The sets are immutable snapshots that are replaced on every change, which
+     * means that they can be read without any locking.
+     */
+    private final Map<Class<?>, Set<Subscriber<?>>> subscribers = new ConcurrentHashMap<>();
+    /**
+     * The key extractor and key of every keyed and filtered subscriber, see {@link KeyedRoutes}.
+     */
+    private final Map<Subscriber<?>, SubscriberKey> subscriberKeys = new ConcurrentHashMap<>();
+    /**
+     * The subscribers that are called on the off-thread executor, see {@link OffThreadSubscriber}.
+     */
+    private final Set<Subscriber<?>> offThreadSubscribers = ConcurrentHashMap.newKeySet();
 
     private Class<? super E> eventType;
+    private final Executor asyncExecutor;
+    private final Executor offThreadExecutor;
+    private final @Nullable ForkJoinPool parallelTiers;
+    private final Map<Class<?>, Function<Object, Object>> asyncOrderKeys;
+    /**
+     * Runs the async fires that are ordered per key, or null if no event class is ordered.
+     */
+    private final @Nullable KeyedSerialExecutor orderedAsyncExecutor;
+    private final Map<Class<?>, Function<Object, Object>> coalescingKeys;
+    private final DeferredEvents deferredEvents;
+    /**
+     * The ring buffer that fires are queued in, or null if fires aren't queued.
+     */
+    private final @Nullable RingBufferDispatcher queue;
+    private final boolean generatedDispatchers;
+    private final @Nullable BusMetrics metrics;
+    private final int metricsSampleRate;
+    private final @Nullable SubscriberWatchdog watchdog;
+    private final boolean flightRecorderEvents;
+    /**
+     * Whether subscriber invocations have to be tracked, for metrics, the watchdog and/or flight recorder events.
+     */
+    private final boolean instrumented;
 
-    // adding and removing is all managed in sortedSubscribersCache
-    private final SetMultimap<Subscriber<?>, Class<?>> subscriberCacheEntries =
-            Multimaps.synchronizedSetMultimap(HashMultimap.create());
-
-    @SuppressWarnings("unchecked")
-    private final LoadingCache<Class<?>, List<Subscriber<?>>> sortedSubscribersCache = CacheBuilder.newBuilder()
-            .removalListener((listener) -> {
-                Class<?> eventClass = (Class<?>) listener.getKey();
-                List<Subscriber<?>> subscribers = (List<Subscriber<?>>) listener.getValue();
-                synchronized (subscriberCacheEntries) {
-                    for (Subscriber<?> subscriber : subscribers) {
-                        subscriberCacheEntries.remove(subscriber, eventClass);
-                    }
-                }
-            })
-            .build(CacheLoader.from(eventClass -> {
-                Set<Class<?>> ancestors = Utils.ancestorsThatUse(eventClass, eventType);
+    /**
+     * The dispatch table of every event class that has been fired. The map itself is never modified, every change
+     * publishes a new map. This means that firing an event only has to do a single lookup without any locking.
+     */
+    private volatile Map<Class<?>, DispatchTable> dispatchTables = Collections.emptyMap();
 
-                List<Subscriber<?>> sortedSubscribers = new ArrayList<>();
-                synchronized (subscribers) {
-                    for (Class<?> ancestor : ancestors) {
-                        sortedSubscribers.addAll(subscribers.get(ancestor));
-                    }
-                }
-                sortedSubscribers.sort(Comparator.comparingInt(s -> s.order().ordinal()));
-                sortedSubscribers = Collections.unmodifiableList(sortedSubscribers);
+    /**
+     * The changes of the batch that the current thread is in, or null if it isn't in a batch.
+     */
+    private final ThreadLocal<SubscriberChanges> batchChanges = new ThreadLocal<>();
 
-                synchronized (subscriberCacheEntries) {
-                    for (Subscriber<?> subscriber : sortedSubscribers) {
-                        subscriberCacheEntries.put(subscriber, eventClass);
-                    }
-                }
-                return sortedSubscribers;
-            }));
+    public BaseBusImpl() {
+        this(BusOptions.defaults());
+    }
 
     @SuppressWarnings("UnstableApiUsage")
-    public BaseBusImpl() {
+    public BaseBusImpl(@NonNull BusOptions options) {
         eventType = new TypeToken<E>(getClass()) {}.getRawType();
+        asyncExecutor = options.asyncExecutor();
+        offThreadExecutor = options.offThreadExecutor() != null ? options.offThreadExecutor() : asyncExecutor;
+        parallelTiers = options.parallelTiers();
+        asyncOrderKeys = options.asyncOrderKeys();
+        orderedAsyncExecutor = asyncOrderKeys.isEmpty() ? null : new KeyedSerialExecutor(asyncExecutor);
+        coalescingKeys = options.coalescingKeys();
+        deferredEvents = new DeferredEvents(this::coalescingKey);
+        generatedDispatchers = options.generatedDispatchers();
+        metrics = options.metrics();
+        metricsSampleRate = options.metricsSampleRate();
+        watchdog = options.watchdog();
+        flightRecorderEvents = options.flightRecorderEvents() && FlightRecorderEvents.isSupported();
+        instrumented = metrics != null || watchdog != null || flightRecorderEvents;
+
+        if (options.queueSize() > 0) {
+            // the consumer threads are only started by the first fire, after the bus has been constructed
+            queue = new RingBufferDispatcher(
+                    options.queueSize(), options.queueConsumers(), options.queueWaitStrategy(), this::fireQueued);
+        } else {
+            queue = null;
+        }
     }
 
     protected <T extends E> void register(Class<T> eventClass, S subscriber) {
+        checkRegistration(eventClass, subscriber);
+
+        SubscriberChanges changes = batchChanges.get();
+        if (changes != null) {
+            changes.add(eventClass, subscriber);
+            return;
+        }
+        if (!addSubscribers(eventClass, Collections.singleton(subscriber)).isEmpty()) {
+            if (metrics != null) {
+                metrics.subscribed(subscriber);
+            }
+            SubscriberKey key = subscriberKeys.get(subscriber);
+            Subscriber<?> dispatched = dispatchedSubscriber(subscriber);
+            if (key != null) {
+                patchDispatchTables(eventClass, table -> table.withKeyedSubscriber(eventClass, dispatched, key));
+            } else {
+                patchDispatchTables(eventClass, table -> table.withSubscriber(eventClass, dispatched));
+            }
+        }
+    }
+
+    private void checkRegistration(Class<?> eventClass, Subscriber<?> subscriber) {
         Preconditions.checkArgument(eventType.isAssignableFrom(eventClass));
         Preconditions.checkArgument(subscriber.eventClass().isAssignableFrom(eventClass));
-        synchronized (subscribers) {
-            subscribers.put(eventClass, subscriber);
-            sortedSubscribersCache.invalidate(eventClass);
+    }
+
+    /**
+     * Returns the subscriber as it's part of the dispatch tables, which wraps it when it's called off-thread.
+     */
+    private Subscriber<?> dispatchedSubscriber(Subscriber<?> subscriber) {
+        return offThreadSubscribers.contains(subscriber) ? new OffThreadSubscriber(subscriber) : subscriber;
+    }
+
+    /**
+     * Registers a subscriber that is called on the off-thread executor without waiting for it, see
+     * {@link Subscribe#offThread()}.
+     *
+     * @param offThread whether the subscriber should be called off-thread
+     */
+    protected <T extends E> void register(Class<T> eventClass, S subscriber, boolean offThread) {
+        // checked before the flag is recorded, so a rejected registration doesn't leave it behind
+        checkRegistration(eventClass, subscriber);
+        if (offThread) {
+            offThreadSubscribers.add(subscriber);
         }
+        register(eventClass, subscriber);
     }
 
-    @SuppressWarnings("unchecked")
-    protected <T extends E> void findSubscriptions(
-            @NonNull Object listener, TriConsumer<Class<T>, Subscribe, BiConsumer<Object, T>> consumer) {
-        Class<?> currentClass = listener.getClass();
-        while (currentClass != Object.class) {
-            for (Method method : currentClass.getDeclaredMethods()) {
-                Subscribe subscribe = method.getAnnotation(Subscribe.class);
+    /**
+     * Registers a subscriber that is only called for events whose extracted key equals the given key.
+     *
+     * @param keyExtractor extracts the key of an event, subscribers that use the same instance share the extraction
+     * @param key the key of the subscriber
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    protected <T extends E> void register(
+            Class<T> eventClass, S subscriber, Function<? super T, ?> keyExtractor, Object key) {
+        Preconditions.checkNotNull(keyExtractor, "keyExtractor");
+        Preconditions.checkNotNull(key, "key");
+        checkRegistration(eventClass, subscriber);
+        subscriberKeys.put(subscriber, SubscriberKey.keyed((Function) keyExtractor, key));
+        register(eventClass, subscriber);
+    }
 
-                if (subscribe == null) {
-                    continue;
-                }
+    /**
+     * Registers a subscriber that is only called for events that pass the given filter.
+     *
+     * @param filter tests the event before the subscriber is called, subscribers that use the same instance share the
+     *     test
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    protected <T extends E> void register(Class<T> eventClass, S subscriber, Predicate<? super T> filter) {
+        Preconditions.checkNotNull(filter, "filter");
+        checkRegistration(eventClass, subscriber);
+        subscriberKeys.put(subscriber, SubscriberKey.filtered((Predicate) filter));
+        register(eventClass, subscriber);
+    }
 
-                if (method.getParameterCount() > 1) {
-                    continue;
-                }
+    /**
+     * Registers a subscriber of a listener, with the filter and off-thread flag of its annotation.
+     */
+    @SuppressWarnings("rawtypes")
+    protected <T extends E> void register(Class<T> eventClass, S subscriber, Subscribe subscribe) {
+        checkRegistration(eventClass, subscriber);
+        Class<? extends Predicate> filterClass = subscribe.filter();
+        Predicate<Object> filter = filterClass == Predicate.class ? null : FILTERS.get(filterClass);
 
-                Class<?> firstParameterType = method.getParameters()[0].getType();
+        if (subscribe.offThread()) {
+            offThreadSubscribers.add(subscriber);
+        }
+        if (filter == null) {
+            register(eventClass, subscriber);
+        } else {
+            register(eventClass, subscriber, filter);
+        }
+    }
 
-                if (!eventType.isAssignableFrom(firstParameterType)) {
-                    continue;
+    /**
+     * Adds the subscribers to the subscribers of the event class and returns the ones that weren't registered yet.
+     */
+    private Set<Subscriber<?>> addSubscribers(Class<?> eventClass, Set<Subscriber<?>> added) {
+        Set<Subscriber<?>> newlyAdded = new HashSet<>();
+        subscribers.compute(eventClass, (key, current) -> {
+            for (Subscriber<?> subscriber : added) {
+                if (current == null || !current.contains(subscriber)) {
+                    newlyAdded.add(subscriber);
                 }
+            }
+            if (newlyAdded.isEmpty()) {
+                return current;
+            }
 
-                // allow private subscribers
-                method.setAccessible(true);
+            ImmutableSet.Builder<Subscriber<?>> builder = ImmutableSet.builder();
+            if (current != null) {
+                builder.addAll(current);
+            }
+            return builder.addAll(newlyAdded).build();
+        });
+        return newlyAdded;
+    }
 
-                try {
-                    consumer.accept(
-                            (Class<T>) firstParameterType,
-                            subscribe,
-                            LambdaFactory.createBiConsumer(CALLER.unreflect(method)));
-                } catch (IllegalAccessException exception) {
-                    exception.printStackTrace();
-                }
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    protected <T extends E> void findSubscriptions(
+            @NonNull Object listener, TriConsumer<Class<T>, Subscribe, BiConsumer<Object, T>> consumer) {
+        for (SubscriptionTemplate template : SUBSCRIPTION_TEMPLATES.get(listener.getClass())) {
+            if (eventType.isAssignableFrom(template.eventClass)) {
+                consumer.accept((Class<T>) template.eventClass, template.subscribe, (BiConsumer) template.handler);
+            }
+        }
+    }
+
+    private static List<SubscriptionTemplate> scanSubscriptions(Class<?> listenerClass) {
+        List<SubscriptionTemplate> templates = new ArrayList<>();
+
+        Class<?> currentClass = listenerClass;
+        while (currentClass != Object.class) {
+            @SuppressWarnings("unchecked")
+            SubscriberIndex<Object> index = (SubscriberIndex<Object>) Utils.subscriberIndex(currentClass);
+            if (index != null) {
+                index.collect(new SubscriberIndex.Collector<Object>() {
+                    @Override
+                    public <U> void accept(
+                            @NonNull Class<U> eventClass,
+                            @NonNull Subscribe subscribe,
+                            @NonNull BiConsumer<Object, U> handler) {
+                        templates.add(new SubscriptionTemplate(eventClass, subscribe, handler));
+                    }
+                });
+            } else {
+                scanSubscriptionsReflectively(currentClass, templates);
             }
             currentClass = currentClass.getSuperclass();
         }
+        return Collections.unmodifiableList(templates);
+    }
+
+    private static void scanSubscriptionsReflectively(Class<?> listenerClass, List<SubscriptionTemplate> templates) {
+        for (Method method : listenerClass.getDeclaredMethods()) {
+            Subscribe subscribe = method.getAnnotation(Subscribe.class);
+
+            if (subscribe == null) {
+                continue;
+            }
+
+            if (method.getParameterCount() > 1) {
+                continue;
+            }
+
+            // allow private subscribers
+            method.setAccessible(true);
+
+            try {
+                templates.add(new SubscriptionTemplate(
+                        method.getParameters()[0].getType(),
+                        subscribe,
+                        LambdaFactory.createBiConsumer(CALLER.unreflect(method))));
+            } catch (IllegalAccessException exception) {
+                exception.printStackTrace();
+            }
+        }
     }
 
     @Override
     public void unsubscribe(@NonNull S subscription) {
-        synchronized (subscribers) {
-            // we can trust the subscription because the implementation that will be used is final.
-            Class<? extends E> eventClass = subscription.eventClass();
-            if (!subscribers.remove(eventClass, subscription)) {
-                sortedSubscribersCache.invalidate(eventClass);
+        // we can trust the subscription because the implementation that will be used is final.
+        Class<? extends E> eventClass = subscription.eventClass();
+
+        SubscriberChanges changes = batchChanges.get();
+        if (changes != null) {
+            changes.remove(eventClass, subscription);
+            return;
+        }
+        if (removeSubscribers(eventClass, Collections.singleton(subscription))) {
+            // the key and flag are forgotten afterwards, tables that are loaded in the meantime still need them
+            SubscriberKey key = subscriberKeys.get(subscription);
+            Subscriber<?> dispatched = dispatchedSubscriber(subscription);
+            if (key != null) {
+                patchDispatchTables(eventClass, table -> table.withoutKeyedSubscriber(dispatched, key));
+                subscriberKeys.remove(subscription);
+            } else {
+                patchDispatchTables(eventClass, table -> table.withoutSubscriber(dispatched));
+            }
+            offThreadSubscribers.remove(subscription);
+            if (metrics != null) {
+                metrics.unsubscribed(subscription);
             }
         }
     }
 
+    private boolean removeSubscribers(Class<?> eventClass, Set<Subscriber<?>> removed) {
+        boolean[] changed = new boolean[1];
+        subscribers.computeIfPresent(eventClass, (key, current) -> {
+            ImmutableSet.Builder<Subscriber<?>> remaining = ImmutableSet.builder();
+            for (Subscriber<?> other : current) {
+                if (removed.contains(other)) {
+                    changed[0] = true;
+                } else {
+                    remaining.add(other);
+                }
+            }
+            if (!changed[0]) {
+                return current;
+            }
+            Set<Subscriber<?>> result = remaining.build();
+            return result.isEmpty() ? null : result;
+        });
+        return changed[0];
+    }
+
     protected void unsubscribeMany(Iterable<S> subscriptions) {
-        for (S subscription : subscriptions) {
-            unsubscribe(subscription);
-        }
+        batch(() -> {
+            for (S subscription : subscriptions) {
+                unsubscribe(subscription);
+            }
+        });
     }
 
     protected void unsubscribeAll() {
-        synchronized (subscribers) {
-            subscribers.clear();
+        // changes made earlier in the batch would otherwise be applied after everything has been removed
+        SubscriberChanges changes = batchChanges.get();
+        if (changes != null) {
+            changes.clear();
+        }
+        if (metrics != null) {
+            subscribers.values().forEach(removed -> removed.forEach(metrics::unsubscribed));
+        }
+        subscribers.clear();
+        subscriberKeys.clear();
+        offThreadSubscribers.clear();
+        // always a new instance, see patchDispatchTables
+        dispatchTables = new HashMap<>();
+    }
+
+    @Override
+    public void batch(@NonNull Runnable changes) {
+        Preconditions.checkNotNull(changes, "changes");
+        if (batchChanges.get() != null) {
+            // part of the batch that this thread is already in
+            changes.run();
+            return;
+        }
+
+        SubscriberChanges batch = new SubscriberChanges();
+        batchChanges.set(batch);
+        try {
+            changes.run();
+        } finally {
+            batchChanges.remove();
+            applyChanges(batch);
+        }
+    }
+
+    private void applyChanges(SubscriberChanges changes) {
+        Set<Class<?>> changed = new HashSet<>();
+        // removals first, so that a subscriber that was removed and then added again during the batch stays
+        changes.removed.forEach((eventClass, removed) -> {
+            if (removeSubscribers(eventClass, removed)) {
+                changed.add(eventClass);
+            }
+            if (metrics != null) {
+                removed.forEach(metrics::unsubscribed);
+            }
+        });
+        changes.added.forEach((eventClass, added) -> {
+            if (added.isEmpty()) {
+                return;
+            }
+            Set<Subscriber<?>> newlyAdded = addSubscribers(eventClass, added);
+            if (!newlyAdded.isEmpty()) {
+                if (metrics != null) {
+                    newlyAdded.forEach(metrics::subscribed);
+                }
+                changed.add(eventClass);
+            }
+        });
+
+        if (!changed.isEmpty()) {
+            rebuildDispatchTables(changed);
+        }
+
+        if (!subscriberKeys.isEmpty() || !offThreadSubscribers.isEmpty()) {
+            // forget the keys and flags of the removed subscribers, unless they were added again
+            changes.removed.forEach((eventClass, removed) -> {
+                Set<Subscriber<?>> remaining = subscribers.getOrDefault(eventClass, Collections.emptySet());
+                for (Subscriber<?> subscriber : removed) {
+                    if (!remaining.contains(subscriber)) {
+                        subscriberKeys.remove(subscriber);
+                        offThreadSubscribers.remove(subscriber);
+                    }
+                }
+            });
         }
-        sortedSubscribersCache.invalidateAll();
     }
 
     @Override
     public FireResult fire(@NonNull E event) {
+        // a consumer would wait on itself when the buffer is full
+        if (queue != null && !queue.isConsumerThread()) {
+            Preconditions.checkNotNull(event, "event");
+            queue.publish(event);
+            return FireResult.ok();
+        }
+
         FireResult result = fireSilently(event);
         if (!result.success()) {
             result.exceptions().forEach((subscriber, throwable) -> {
@@ -191,34 +540,789 @@ abstract class BaseBusImpl<E, S extends Subscriber<? extends E>> implements Base
     }
 
     @Override
-    @SuppressWarnings({"rawtypes", "unchecked"})
+    public @NonNull CompletableFuture<FireResult> fireAsync(@NonNull E event) {
+        Object key = orderedAsyncExecutor != null ? asyncOrderKey(event) : null;
+        if (key == null) {
+            return CompletableFuture.supplyAsync(() -> fire(event), asyncExecutor);
+        }
+
+        CompletableFuture<FireResult> future = new CompletableFuture<>();
+        orderedAsyncExecutor.execute(key, () -> {
+            try {
+                future.complete(fire(event));
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Returns the key that the async fires of the given event are ordered by, or null if they aren't ordered.
+     */
+    private @Nullable Object asyncOrderKey(Object event) {
+        Class<?> keyedClass = keyedClass(asyncOrderKeys, event);
+        return keyedClass != null ? asyncOrderKeys.get(keyedClass).apply(event) : null;
+    }
+
+    /**
+     * Returns the key that the given deferred event is coalesced by, or null if it isn't coalesced.
+     */
+    private @Nullable Object coalescingKey(Object event) {
+        if (coalescingKeys.isEmpty()) {
+            return null;
+        }
+        Class<?> keyedClass = keyedClass(coalescingKeys, event);
+        if (keyedClass == null) {
+            return null;
+        }
+        Object key = coalescingKeys.get(keyedClass).apply(event);
+        // the same key of another event class is another key
+        return key != null ? Arrays.asList(keyedClass, key) : null;
+    }
+
+    /**
+     * Returns the most specific class of the given event that has a key extractor, or null if there is none.
+     */
+    private @Nullable Class<?> keyedClass(Map<Class<?>, Function<Object, Object>> keyExtractors, Object event) {
+        Class<?>[] ancestors = EventHierarchy.of(event.getClass(), eventType).ancestors();
+        // the event class itself comes last
+        for (int i = ancestors.length - 1; i >= 0; i--) {
+            if (keyExtractors.containsKey(ancestors[i])) {
+                return ancestors[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void fireLater(@NonNull E event) {
+        Preconditions.checkNotNull(event, "event");
+        deferredEvents.add(event);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public FireResult flush() {
+        return fireAll((List<E>) (List<?>) deferredEvents.drain());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fireQueued(List<Object> events) {
+        fireAll((List<E>) (List<?>) events);
+    }
+
+    @Override
+    public void shutdown() {
+        if (queue == null) {
+            return;
+        }
+        try {
+            queue.shutdown();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
     public FireResult fireSilently(@NonNull E event) {
-        Map<Subscriber<?>, Throwable> thrown = new HashMap<>();
+        Map<Subscriber<?>, Throwable> thrown = dispatch(dispatchTable(event.getClass()), event, null);
+        return thrown == null ? FireResult.ok() : FireResult.resultFor(thrown);
+    }
 
-        for (Subscriber subscriber : sortedSubscribers(event.getClass())) {
-            if (Utils.shouldCallSubscriber(subscriber, event)) {
+    @Override
+    public FireResult fireAll(@NonNull Iterable<? extends E> events) {
+        FireResult result = fireAllSilently(events);
+        if (!result.success()) {
+            result.exceptions().forEach((subscriber, throwable) -> {
+                logger.error(
+                        "An exception occurred while executing a batch of events for subscriber {}",
+                        subscriber.getClass().getName(),
+                        throwable);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public FireResult fireAllSilently(@NonNull Iterable<? extends E> events) {
+        return fireAllSilently(events, false);
+    }
+
+    @Override
+    public FireResult fireAllSilently(@NonNull Iterable<? extends E> events, boolean subscriberMajor) {
+        Preconditions.checkNotNull(events, "events");
+        if (subscriberMajor) {
+            return fireAllSubscriberMajor(events);
+        }
+
+        Map<Subscriber<?>, Throwable> thrown = null;
+        // events of the same class usually come in runs, so the table of the last event is reused
+        DispatchTable table = null;
+        for (E event : events) {
+            if (table == null || table.eventClass != event.getClass()) {
+                table = dispatchTable(event.getClass());
+            }
+            thrown = dispatch(table, event, thrown);
+        }
+        return thrown == null ? FireResult.ok() : FireResult.resultFor(thrown);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private FireResult fireAllSubscriberMajor(Iterable<? extends E> events) {
+        List<? extends E> list;
+        if (events instanceof List && events instanceof RandomAccess) {
+            list = (List<? extends E>) events;
+        } else {
+            list = Lists.newArrayList(events);
+        }
+
+        Map<Subscriber<?>, Throwable> thrown = null;
+        int runStart = 0;
+        while (runStart < list.size()) {
+            Class<?> eventClass = list.get(runStart).getClass();
+            int runEnd = runStart + 1;
+            while (runEnd < list.size() && list.get(runEnd).getClass() == eventClass) {
+                runEnd++;
+            }
+
+            // every event still sees the subscribers in the same order, but a subscriber handles the whole run
+            // before the next subscriber is called
+            DispatchTable table = dispatchTable(eventClass);
+            if (table.keyed != null || parallelTiers != null && AsyncEvent.class.isAssignableFrom(eventClass)) {
+                // keyed subscribers are merged per event and parallel tiers need every tier of an event to finish
+                // before the next tier, so the run is dispatched event by event
+                for (int i = runStart; i < runEnd; i++) {
+                    thrown = dispatch(table, list.get(i), thrown);
+                }
+                runStart = runEnd;
+                continue;
+            }
+            boolean timed = shouldTime();
+            for (Subscriber subscriber : table.subscribers) {
+                boolean checkCancelled = table.hierarchy.cancellable() && !subscriber.ignoreCancelled();
+                for (int i = runStart; i < runEnd; i++) {
+                    Object event = list.get(i);
+                    if (checkCancelled && ((Cancellable) event).isCancelled()) {
+                        continue;
+                    }
+                    thrown = invoke(subscriber, eventClass, event, thrown, timed);
+                }
+            }
+            runStart = runEnd;
+        }
+        return thrown == null ? FireResult.ok() : FireResult.resultFor(thrown);
+    }
+
+    /**
+     * Calls the subscribers of the given table and adds the exceptions they throw to the given map. A successful
+     * dispatch doesn't allocate anything, so the map is only created once a subscriber throws.
+     *
+     * @return the given map, or a new map if the given map was null and a subscriber threw
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private @Nullable Map<Subscriber<?>, Throwable> dispatch(
+            DispatchTable table, Object event, @Nullable Map<Subscriber<?>, Throwable> thrown) {
+        if (parallelTiers != null && event instanceof AsyncEvent) {
+            return dispatchParallel(table, parallelTiers, event, thrown);
+        }
+        if (table.keyed != null) {
+            return dispatchKeyed(table, table.keyed, event, thrown);
+        }
+        if (instrumented) {
+            return dispatchInstrumented(table, event, thrown);
+        }
+
+        BiFunction<Object, Map<Subscriber<?>, Throwable>, Map<Subscriber<?>, Throwable>> dispatcher =
+                table.dispatcher();
+        if (dispatcher != null) {
+            return dispatcher.apply(event, thrown);
+        }
+
+        // the subscribers are iterated by index instead of through an iterator
+        Subscriber[] subscribers = table.subscribers;
+        int[] nextIgnoringCancelled = table.nextIgnoringCancelled;
+        if (nextIgnoringCancelled == null) {
+            // the event can't be cancelled, so every subscriber is called
+            for (int i = 0; i < subscribers.length; i++) {
                 try {
-                    subscriber.invoke(event);
+                    subscribers[i].invoke(event);
                 } catch (Throwable throwable) {
-                    thrown.put(subscriber, throwable);
+                    thrown = addThrown(thrown, subscribers[i], throwable);
+                }
+            }
+            return thrown;
+        }
+
+        Cancellable cancellable = (Cancellable) event;
+        int i = 0;
+        while (i < subscribers.length) {
+            int next = nextIgnoringCancelled[i];
+            if (next != i && cancellable.isCancelled()) {
+                // skip to the next subscriber that has to be called even though the event is cancelled
+                i = next;
+                continue;
+            }
+            try {
+                subscribers[i].invoke(event);
+            } catch (Throwable throwable) {
+                thrown = addThrown(thrown, subscribers[i], throwable);
+            }
+            i++;
+        }
+        return thrown;
+    }
+
+    /**
+     * The same as {@link #dispatch(DispatchTable, Object, Map)}, but every invocation is tracked. Generated
+     * dispatchers are skipped, because they can't track the individual subscribers.
+     */
+    @SuppressWarnings("rawtypes")
+    private @Nullable Map<Subscriber<?>, Throwable> dispatchInstrumented(
+            DispatchTable table, Object event, @Nullable Map<Subscriber<?>, Throwable> thrown) {
+        Object recording = flightRecorderEvents ? FlightRecorderEvents.beginFire() : null;
+        boolean timed = shouldTime();
+
+        Subscriber[] subscribers = table.subscribers;
+        int[] nextIgnoringCancelled = table.nextIgnoringCancelled;
+        int i = 0;
+        while (i < subscribers.length) {
+            if (nextIgnoringCancelled != null) {
+                int next = nextIgnoringCancelled[i];
+                if (next != i && ((Cancellable) event).isCancelled()) {
+                    i = next;
+                    continue;
+                }
+            }
+            thrown = invoke(subscribers[i], table.eventClass, event, thrown, timed);
+            i++;
+        }
+
+        if (recording != null) {
+            FlightRecorderEvents.endFire(recording, table.eventClass, subscribers.length);
+        }
+        return thrown;
+    }
+
+    /**
+     * The same as {@link #dispatch(DispatchTable, Object, Map)}, but for tables with keyed or filtered subscribers. The
+     * keys of the event are extracted (and the filters are tested) once before any subscriber is called, and only the
+     * subscribers that match are called. Within a post order, the matching subscribers are called after the others.
+     */
+    @SuppressWarnings("rawtypes")
+    private @Nullable Map<Subscriber<?>, Throwable> dispatchKeyed(
+            DispatchTable table, KeyedRoutes keyed, Object event, @Nullable Map<Subscriber<?>, Throwable> thrown) {
+        Object recording = flightRecorderEvents ? FlightRecorderEvents.beginFire() : null;
+        boolean timed = shouldTime();
+
+        Subscriber[][] matching = borrowMatching(keyed);
+        Subscriber[] subscribers = table.subscribers;
+        int subscriberCount = subscribers.length;
+        try {
+            thrown = collectMatching(keyed, event, matching, thrown);
+            for (PostOrder order : ORDERS) {
+                for (int i = table.start(order); i < table.end(order); i++) {
+                    thrown = invokeIfNotCancelled(table, subscribers[i], event, thrown, timed);
+                }
+                for (int group = 0; group < keyed.groups(); group++) {
+                    Subscriber[] groupSubscribers = matching[group];
+                    if (groupSubscribers == null) {
+                        continue;
+                    }
+                    for (Subscriber subscriber : groupSubscribers) {
+                        if (subscriber.order() == order) {
+                            thrown = invokeIfNotCancelled(table, subscriber, event, thrown, timed);
+                            subscriberCount++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            releaseMatching(matching);
+        }
+
+        if (recording != null) {
+            FlightRecorderEvents.endFire(recording, table.eventClass, subscriberCount);
+        }
+        return thrown;
+    }
+
+    /**
+     * Returns an array for the keyed subscribers of a fire that match the event, with an element for every group of
+     * the given routes. The returned array can be longer than the amount of groups and has to be passed to
+     * {@link #releaseMatching(Subscriber[][])} afterwards.
+     * <p>
+     * The array is borrowed from {@link #MATCHING_BUFFER}, so a keyed fire doesn't allocate. A nested fire on the same
+     * thread finds no buffer and creates a new array.
+     */
+    @SuppressWarnings("rawtypes")
+    private static Subscriber[][] borrowMatching(KeyedRoutes keyed) {
+        int groups = keyed.groups();
+        Subscriber[][] matching = MATCHING_BUFFER.get();
+        if (matching == null || matching.length < groups) {
+            return new Subscriber[groups][];
+        }
+        MATCHING_BUFFER.set(null);
+        return matching;
+    }
+
+    /**
+     * Collects the keyed subscribers that match the given event for every group of the given routes, see
+     * {@link KeyedRoutes#matching(int, Object)}. A key extractor or filter that throws matches nothing, and the
+     * exception is added for every subscriber of its group, like an exception of the subscribers themselves.
+     */
+    @SuppressWarnings("rawtypes")
+    private static @Nullable Map<Subscriber<?>, Throwable> collectMatching(
+            KeyedRoutes keyed, Object event, Subscriber[][] matching, @Nullable Map<Subscriber<?>, Throwable> thrown) {
+        for (int group = 0; group < keyed.groups(); group++) {
+            try {
+                matching[group] = keyed.matching(group, event);
+            } catch (Throwable throwable) {
+                matching[group] = null;
+                for (Subscriber<?> subscriber : keyed.subscribers(group)) {
+                    thrown = addThrown(thrown, subscriber, throwable);
+                }
+            }
+        }
+        return thrown;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void releaseMatching(Subscriber[][] matching) {
+        // the buffer shouldn't keep subscribers reachable
+        Arrays.fill(matching, null);
+        MATCHING_BUFFER.set(matching);
+    }
+
+    /**
+     * The same as {@link #dispatch(DispatchTable, Object, Map)}, but the subscribers of a post order are called
+     * concurrently on the given pool, see {@link BusOptions.Builder#parallelTiers(ForkJoinPool)}. The next post order
+     * only starts once every subscriber of the previous post order has finished.
+     */
+    @SuppressWarnings("rawtypes")
+    private @Nullable Map<Subscriber<?>, Throwable> dispatchParallel(
+            DispatchTable table, ForkJoinPool pool, Object event, @Nullable Map<Subscriber<?>, Throwable> thrown) {
+        Object recording = flightRecorderEvents ? FlightRecorderEvents.beginFire() : null;
+        boolean timed = shouldTime();
+
+        KeyedRoutes keyed = table.keyed;
+        Subscriber[][] matching = keyed != null ? borrowMatching(keyed) : null;
+        Subscriber[] subscribers = table.subscribers;
+        List<Subscriber> tier = new ArrayList<>();
+        int subscriberCount = 0;
+        try {
+            if (matching != null) {
+                thrown = collectMatching(keyed, event, matching, thrown);
+            }
+            for (PostOrder order : ORDERS) {
+                tier.clear();
+                for (int i = table.start(order); i < table.end(order); i++) {
+                    tier.add(subscribers[i]);
+                }
+                if (matching != null) {
+                    for (int group = 0; group < keyed.groups(); group++) {
+                        Subscriber[] groupSubscribers = matching[group];
+                        if (groupSubscribers == null) {
+                            continue;
+                        }
+                        for (Subscriber subscriber : groupSubscribers) {
+                            if (subscriber.order() == order) {
+                                tier.add(subscriber);
+                            }
+                        }
+                    }
+                }
+                thrown = invokeConcurrently(table, pool, tier, event, thrown, timed);
+                subscriberCount += tier.size();
+            }
+        } finally {
+            if (matching != null) {
+                releaseMatching(matching);
+            }
+        }
+
+        if (recording != null) {
+            FlightRecorderEvents.endFire(recording, table.eventClass, subscriberCount);
+        }
+        return thrown;
+    }
+
+    /**
+     * Invokes the given subscribers concurrently and waits until they have all finished. The first subscriber is
+     * invoked on the calling thread, which means that a tier with a single subscriber doesn't use the pool at all.
+     */
+    @SuppressWarnings("rawtypes")
+    private @Nullable Map<Subscriber<?>, Throwable> invokeConcurrently(
+            DispatchTable table,
+            ForkJoinPool pool,
+            List<Subscriber> subscribers,
+            Object event,
+            @Nullable Map<Subscriber<?>, Throwable> thrown,
+            boolean timed) {
+        if (subscribers.isEmpty()) {
+            return thrown;
+        }
+
+        List<ForkJoinTask<Map<Subscriber<?>, Throwable>>> tasks = new ArrayList<>(subscribers.size() - 1);
+        for (int i = 1; i < subscribers.size(); i++) {
+            Subscriber subscriber = subscribers.get(i);
+            // every task has its own map, the maps are merged once the tier has finished
+            ForkJoinTask<Map<Subscriber<?>, Throwable>> task =
+                    ForkJoinTask.adapt(() -> invokeIfNotCancelled(table, subscriber, event, null, timed));
+            if (ForkJoinTask.getPool() == pool) {
+                task.fork();
+            } else {
+                pool.execute(task);
+            }
+            tasks.add(task);
+        }
+
+        thrown = invokeIfNotCancelled(table, subscribers.get(0), event, thrown, timed);
+        // the last forked task is joined first, so a worker of the pool can run the remaining tasks itself
+        for (int i = tasks.size() - 1; i >= 0; i--) {
+            Map<Subscriber<?>, Throwable> taskThrown = tasks.get(i).join();
+            if (taskThrown != null) {
+                for (Map.Entry<Subscriber<?>, Throwable> entry : taskThrown.entrySet()) {
+                    thrown = addThrown(thrown, entry.getKey(), entry.getValue());
                 }
             }
         }
+        return thrown;
+    }
+
+    /**
+     * Invokes a single subscriber, unless the event has been cancelled and the subscriber doesn't ignore cancelled
+     * events.
+     */
+    @SuppressWarnings("rawtypes")
+    private @Nullable Map<Subscriber<?>, Throwable> invokeIfNotCancelled(
+            DispatchTable table,
+            Subscriber subscriber,
+            Object event,
+            @Nullable Map<Subscriber<?>, Throwable> thrown,
+            boolean timed) {
+        if (table.hierarchy.cancellable() && !subscriber.ignoreCancelled() && ((Cancellable) event).isCancelled()) {
+            return thrown;
+        }
+        return invoke(subscriber, table.eventClass, event, thrown, timed);
+    }
+
+    /**
+     * Returns whether the invocations of the current fire should be timed for metrics. With a sample rate of N, every
+     * fire has a chance of one in N. A random draw doesn't write to shared memory and, unlike a counter per thread,
+     * isn't biased when a thread fires events of different classes in a fixed pattern.
+     */
+    private boolean shouldTime() {
+        return metrics != null && (metricsSampleRate == 1 || ThreadLocalRandom.current().nextInt(metricsSampleRate) == 0);
+    }
+
+    /**
+     * Invokes a single subscriber, and tracks the invocation when instrumentation is enabled.
+     *
+     * @param timed whether the invocation should be timed for metrics, see {@link #shouldTime()}
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private @Nullable Map<Subscriber<?>, Throwable> invoke(
+            Subscriber subscriber,
+            Class<?> eventClass,
+            Object event,
+            @Nullable Map<Subscriber<?>, Throwable> thrown,
+            boolean timed) {
+        // an off-thread subscriber is tracked once it's called off-thread, not when it's handed to the executor
+        if (!instrumented || subscriber instanceof BaseBusImpl.OffThreadSubscriber) {
+            try {
+                subscriber.invoke(event);
+            } catch (Throwable throwable) {
+                thrown = addThrown(thrown, subscriber, throwable);
+            }
+            return thrown;
+        }
 
-        return FireResult.resultFor(thrown);
+        SubscriberWatchdog.Slot slot = watchdog != null ? watchdog.begin(subscriber, eventClass) : null;
+        Object recording = flightRecorderEvents ? FlightRecorderEvents.beginInvoke() : null;
+        long start = timed ? System.nanoTime() : 0;
+        Throwable failure = null;
+        try {
+            subscriber.invoke(event);
+        } catch (Throwable throwable) {
+            failure = throwable;
+            thrown = addThrown(thrown, subscriber, throwable);
+        } finally {
+            if (slot != null) {
+                watchdog.end(slot);
+            }
+        }
+        if (recording != null) {
+            FlightRecorderEvents.endInvoke(recording, subscriber, eventClass, failure != null);
+        }
+        if (metrics != null) {
+            if (timed) {
+                metrics.record(subscriber, eventClass, System.nanoTime() - start, failure);
+            } else {
+                metrics.recordUntimed(subscriber, eventClass, failure);
+            }
+        }
+        return thrown;
+    }
+
+    /**
+     * Adds an exception thrown by the given subscriber. When a subscriber throws multiple times during a batch, the
+     * first exception is kept and the others are added to it as suppressed exceptions.
+     */
+    static Map<Subscriber<?>, Throwable> addThrown(
+            @Nullable Map<Subscriber<?>, Throwable> thrown, Subscriber<?> subscriber, Throwable throwable) {
+        if (thrown == null) {
+            thrown = new HashMap<>();
+        }
+        Throwable first = thrown.putIfAbsent(unwrap(subscriber), throwable);
+        if (first != null && first != throwable) {
+            first.addSuppressed(throwable);
+        }
+        return thrown;
     }
 
     @SuppressWarnings("unchecked")
     protected List<S> sortedSubscribers(Class<?> eventClass) {
-        return (List<S>) sortedSubscribersCache.getUnchecked(eventClass);
+        DispatchTable table = dispatchTable(eventClass);
+        if (table.keyed == null && offThreadSubscribers.isEmpty()) {
+            return (List<S>) Collections.unmodifiableList(Arrays.asList(table.subscribers));
+        }
+        List<Subscriber<?>> sorted = new ArrayList<>(Arrays.asList(table.subscribers));
+        if (table.keyed != null) {
+            sorted.addAll(table.keyed.all());
+            // stable, so the keyed subscribers come after the other subscribers of the same order
+            sorted.sort(Comparator.comparingInt(subscriber -> subscriber.order().ordinal()));
+        }
+        sorted.replaceAll(BaseBusImpl::unwrap);
+        return (List<S>) Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Returns the registered subscriber of the given subscriber of a dispatch table.
+     */
+    private static Subscriber<?> unwrap(Subscriber<?> subscriber) {
+        if (subscriber instanceof BaseBusImpl.OffThreadSubscriber) {
+            return ((BaseBusImpl<?, ?>.OffThreadSubscriber) subscriber).delegate;
+        }
+        return subscriber;
+    }
+
+    DispatchTable dispatchTable(Class<?> eventClass) {
+        DispatchTable table = dispatchTables.get(eventClass);
+        if (table != null) {
+            return table;
+        }
+        return loadDispatchTable(eventClass);
+    }
+
+    private DispatchTable loadDispatchTable(Class<?> eventClass) {
+        while (true) {
+            Map<Class<?>, DispatchTable> current = dispatchTables;
+            DispatchTable table = current.get(eventClass);
+            if (table != null) {
+                return table;
+            }
+
+            table = createDispatchTable(eventClass);
+
+            Map<Class<?>, DispatchTable> updated = new HashMap<>(current);
+            updated.put(eventClass, table);
+            // if this fails the subscribers changed while creating the table, so it might be outdated
+            if (DISPATCH_TABLES.compareAndSet(this, current, updated)) {
+                return table;
+            }
+        }
+    }
+
+    private DispatchTable createDispatchTable(Class<?> eventClass) {
+        Object recording = flightRecorderEvents ? FlightRecorderEvents.beginTableBuild() : null;
+
+        EventHierarchy hierarchy = EventHierarchy.of(eventClass, eventType);
+        Class<?>[] ancestors = hierarchy.ancestors();
+        List<Subscriber<?>> tableSubscribers = new ArrayList<>();
+        List<Integer> ancestorIndexes = new ArrayList<>();
+        List<Subscriber<?>> keyedSubscribers = new ArrayList<>();
+        List<SubscriberKey> keys = new ArrayList<>();
+        List<Integer> keyedAncestorIndexes = new ArrayList<>();
+        boolean anyKeysOrFlags = !subscriberKeys.isEmpty() || !offThreadSubscribers.isEmpty();
+        for (int ancestorIndex = 0; ancestorIndex < ancestors.length; ancestorIndex++) {
+            Set<Subscriber<?>> ancestorSubscribers = subscribers.get(ancestors[ancestorIndex]);
+            if (ancestorSubscribers == null) {
+                continue;
+            }
+            if (!anyKeysOrFlags) {
+                tableSubscribers.addAll(ancestorSubscribers);
+                ancestorIndexes.addAll(Collections.nCopies(ancestorSubscribers.size(), ancestorIndex));
+                continue;
+            }
+            for (Subscriber<?> subscriber : ancestorSubscribers) {
+                SubscriberKey key = subscriberKeys.get(subscriber);
+                subscriber = dispatchedSubscriber(subscriber);
+                if (key != null) {
+                    keyedSubscribers.add(subscriber);
+                    keys.add(key);
+                    keyedAncestorIndexes.add(ancestorIndex);
+                } else {
+                    tableSubscribers.add(subscriber);
+                    ancestorIndexes.add(ancestorIndex);
+                }
+            }
+        }
+        DispatchTable table = DispatchTable.create(
+                eventClass,
+                hierarchy,
+                tableSubscribers.toArray(new Subscriber<?>[0]),
+                Ints.toArray(ancestorIndexes),
+                KeyedRoutes.create(
+                        keyedSubscribers.toArray(new Subscriber<?>[0]),
+                        keys.toArray(new SubscriberKey[0]),
+                        Ints.toArray(keyedAncestorIndexes)),
+                generatedDispatchers);
+
+        if (recording != null) {
+            FlightRecorderEvents.endTableBuild(recording, eventClass, hierarchy.ancestors().length);
+        }
+        return table;
+    }
+
+    /**
+     * Rebuilds every dispatch table that contains subscribers of one of the given event classes, and publishes them
+     * all at once. A batch can change many subscribers of the same table, so the tables are created from scratch
+     * instead of being patched for every change.
+     * <p>
+     * Tables that are loaded for the first time while a batch is being applied can contain part of the batch, but
+     * they contain one of the changed event classes and are therefore rebuilt here as well.
+     */
+    private void rebuildDispatchTables(Set<Class<?>> eventClasses) {
+        Map<Class<?>, DispatchTable> current;
+        Map<Class<?>, DispatchTable> updated;
+        do {
+            current = dispatchTables;
+            // always a new instance, see patchDispatchTables
+            updated = new HashMap<>(current.size());
+            for (Map.Entry<Class<?>, DispatchTable> entry : current.entrySet()) {
+                DispatchTable table = entry.getValue();
+                if (containsAny(table.hierarchy, eventClasses)) {
+                    table = createDispatchTable(entry.getKey());
+                }
+                updated.put(entry.getKey(), table);
+            }
+        } while (!DISPATCH_TABLES.compareAndSet(this, current, updated));
+    }
+
+    private static boolean containsAny(EventHierarchy hierarchy, Set<Class<?>> eventClasses) {
+        for (Class<?> ancestor : hierarchy.ancestors()) {
+            if (eventClasses.contains(ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Patches every dispatch table that contains subscribers of the given event class, which is cheaper than creating
+     * the tables from scratch and keeps them loaded. This has to be called after the subscribers have been changed.
+     * <p>
+     * A table that was loaded while the subscribers were being changed may or may not contain the change already, so
+     * the patch has to leave a table unchanged if it's already up to date.
+     */
+    private void patchDispatchTables(Class<?> eventClass, UnaryOperator<DispatchTable> patch) {
+        Map<Class<?>, DispatchTable> current;
+        Map<Class<?>, DispatchTable> updated;
+        do {
+            current = dispatchTables;
+            // This is always a new instance, even when no tables are patched. Tables that were being loaded before
+            // the subscribers changed are based on an older map, which makes sure that they're never published.
+            updated = new HashMap<>(current.size());
+            for (Map.Entry<Class<?>, DispatchTable> entry : current.entrySet()) {
+                DispatchTable table = entry.getValue();
+                if (table.hierarchy.contains(eventClass)) {
+                    table = patch.apply(table);
+                }
+                updated.put(entry.getKey(), table);
+            }
+        } while (!DISPATCH_TABLES.compareAndSet(this, current, updated));
     }
 
     protected <T extends Subscriber<U>, U> Set<T> eventSubscribers(Class<U> eventType) {
-        return castGenericSet(subscribers.get(eventType));
+        return castGenericSet(subscribers.getOrDefault(eventType, Collections.emptySet()));
     }
 
     @SuppressWarnings("unchecked")
     protected static <T extends U, U> Set<T> castGenericSet(Set<U> o) {
         return (Set<T>) o;
     }
+
+    /**
+     * Calls a subscriber on the off-thread executor instead of the firing thread, see {@link Subscribe#offThread()}.
+     * The firing thread doesn't wait for the subscriber, which means that the exceptions it throws are logged instead
+     * of being part of the result of the fire.
+     */
+    private final class OffThreadSubscriber implements Subscriber<Object> {
+        final Subscriber<Object> delegate;
+
+        @SuppressWarnings("unchecked")
+        OffThreadSubscriber(Subscriber<?> delegate) {
+            this.delegate = (Subscriber<Object>) delegate;
+        }
+
+        @Override
+        public @NonNull Class<Object> eventClass() {
+            return delegate.eventClass();
+        }
+
+        @Override
+        public @NonNull PostOrder order() {
+            return delegate.order();
+        }
+
+        @Override
+        public boolean ignoreCancelled() {
+            return delegate.ignoreCancelled();
+        }
+
+        @Override
+        public void invoke(@NonNull Object event) {
+            offThreadExecutor.execute(() -> {
+                // sampled like a fire of its own, the fire that handed it over may have finished already
+                Map<Subscriber<?>, Throwable> thrown =
+                        BaseBusImpl.this.invoke(delegate, event.getClass(), event, null, shouldTime());
+                if (thrown != null) {
+                    logger.error(
+                            "An exception occurred while executing event {} off-thread for subscriber {}",
+                            event.getClass().getSimpleName(),
+                            delegate.getClass().getName(),
+                            thrown.get(delegate));
+                }
+            });
+        }
+
+        // a new wrapper is created whenever the subscriber is added to or removed from a table, see
+        // dispatchedSubscriber
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof BaseBusImpl.OffThreadSubscriber
+                    && delegate.equals(((BaseBusImpl<?, ?>.OffThreadSubscriber) other).delegate);
+        }
+
+        @Override
+        public int hashCode() {
+            return delegate.hashCode();
+        }
+    }
+
+    /**
+     * A subscribe method of a listener class, the handler takes the listener instance as first argument.
+     */
+    private static final class SubscriptionTemplate {
+        final Class<?> eventClass;
+        final Subscribe subscribe;
+        final BiConsumer<Object, ?> handler;
+
+        SubscriptionTemplate(Class<?> eventClass, Subscribe subscribe, BiConsumer<Object, ?> handler) {
+            this.eventClass = eventClass;
+            this.subscribe = subscribe;
+            this.handler = handler;
+        }
+    }
 }
@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.AsyncEvent;
+import org.geysermc.event.bus.impl.metrics.BusMetrics;
+import org.geysermc.event.bus.impl.metrics.RecordingBusMetrics;
+import org.geysermc.event.bus.impl.util.VirtualThreads;
+import org.geysermc.event.bus.impl.watchdog.SubscriberWatchdog;
+
+/**
+ * The options of a bus. Options are passed to the bus on creation and can't be changed afterwards.
+ */
+public final class BusOptions {
+    private static final BusOptions DEFAULTS = builder().build();
+
+    private final Executor asyncExecutor;
+    private final @Nullable Executor offThreadExecutor;
+    private final @Nullable ForkJoinPool parallelTiers;
+    private final boolean generatedDispatchers;
+    private final @Nullable BusMetrics metrics;
+    private final int metricsSampleRate;
+    private final @Nullable SubscriberWatchdog watchdog;
+    private final boolean flightRecorderEvents;
+    private final Map<Class<?>, Function<Object, Object>> asyncOrderKeys;
+    private final Map<Class<?>, Function<Object, Object>> coalescingKeys;
+    private final int queueSize;
+    private final int queueConsumers;
+    private final WaitStrategy queueWaitStrategy;
+
+    private BusOptions(Builder builder) {
+        this.asyncExecutor = builder.asyncExecutor;
+        this.offThreadExecutor = builder.offThreadExecutor;
+        this.parallelTiers = builder.parallelTiers;
+        this.generatedDispatchers = builder.generatedDispatchers;
+        this.metrics = builder.metrics;
+        this.metricsSampleRate = builder.metricsSampleRate;
+        this.watchdog = builder.watchdog;
+        this.flightRecorderEvents = builder.flightRecorderEvents;
+        this.asyncOrderKeys = Collections.unmodifiableMap(new LinkedHashMap<>(builder.asyncOrderKeys));
+        this.coalescingKeys = Collections.unmodifiableMap(new LinkedHashMap<>(builder.coalescingKeys));
+        this.queueSize = builder.queueSize;
+        this.queueConsumers = builder.queueConsumers;
+        this.queueWaitStrategy = builder.queueWaitStrategy;
+    }
+
+    /**
+     * Returns the options that are used when a bus is created without options.
+     */
+    public static @NonNull BusOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public static @NonNull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the executor that async fires are executed on.
+     */
+    public @NonNull Executor asyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Returns the executor that off-thread subscribers are called on, or null if they're called on the async executor.
+     */
+    public @Nullable Executor offThreadExecutor() {
+        return offThreadExecutor;
+    }
+
+    /**
+     * Returns the pool that the subscribers of a post order are called on concurrently for {@link AsyncEvent}s, or null
+     * if they're called one after the other.
+     */
+    public @Nullable ForkJoinPool parallelTiers() {
+        return parallelTiers;
+    }
+
+    /**
+     * Returns whether a specialized dispatcher is generated for every event class.
+     */
+    public boolean generatedDispatchers() {
+        return generatedDispatchers;
+    }
+
+    /**
+     * Returns the metrics that every subscriber invocation is recorded to, or null if metrics are disabled.
+     */
+    public @Nullable BusMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns how many fires of an event class there are for every fire whose invocations are timed for metrics.
+     */
+    public int metricsSampleRate() {
+        return metricsSampleRate;
+    }
+
+    /**
+     * Returns the watchdog that checks for slow subscribers, or null if there is none.
+     */
+    public @Nullable SubscriberWatchdog watchdog() {
+        return watchdog;
+    }
+
+    /**
+     * Returns whether the bus emits Java Flight Recorder events.
+     */
+    public boolean flightRecorderEvents() {
+        return flightRecorderEvents;
+    }
+
+    /**
+     * Returns the key extractor of every event class whose async fires are ordered per key.
+     */
+    public @NonNull Map<Class<?>, Function<Object, Object>> asyncOrderKeys() {
+        return asyncOrderKeys;
+    }
+
+    /**
+     * Returns the key extractor of every event class whose deferred events are coalesced per key.
+     */
+    public @NonNull Map<Class<?>, Function<Object, Object>> coalescingKeys() {
+        return coalescingKeys;
+    }
+
+    /**
+     * Returns the amount of slots of the ring buffer that fires are queued in, or 0 if fires aren't queued.
+     */
+    public int queueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Returns the amount of threads that handle the queued fires.
+     */
+    public int queueConsumers() {
+        return queueConsumers;
+    }
+
+    /**
+     * Returns how the threads that handle the queued fires wait for new fires.
+     */
+    public @NonNull WaitStrategy queueWaitStrategy() {
+        return queueWaitStrategy;
+    }
+
+    public static final class Builder {
+        private Executor asyncExecutor = ForkJoinPool.commonPool();
+        private @Nullable Executor offThreadExecutor;
+        private @Nullable ForkJoinPool parallelTiers;
+        private boolean generatedDispatchers;
+        private @Nullable BusMetrics metrics;
+        private int metricsSampleRate = 1;
+        private @Nullable SubscriberWatchdog watchdog;
+        private boolean flightRecorderEvents;
+        private final Map<Class<?>, Function<Object, Object>> asyncOrderKeys = new LinkedHashMap<>();
+        private final Map<Class<?>, Function<Object, Object>> coalescingKeys = new LinkedHashMap<>();
+        private int queueSize;
+        private int queueConsumers;
+        private WaitStrategy queueWaitStrategy = WaitStrategy.PARK;
+
+        private Builder() {}
+
+        /**
+         * Sets the executor that async fires are executed on, this is the common pool by default.
+         *
+         * @param asyncExecutor the executor to use
+         * @return this builder
+         */
+        public @NonNull Builder asyncExecutor(@NonNull Executor asyncExecutor) {
+            this.asyncExecutor = Objects.requireNonNull(asyncExecutor);
+            return this;
+        }
+
+        /**
+         * Runs every async fire on its own virtual thread, if the running Java version supports virtual threads (Java
+         * 21 and newer). Subscribers that block, e.g. on database or HTTP calls, then only park their virtual thread
+         * instead of occupying a platform thread. The async executor is left unchanged on older Java versions.
+         *
+         * @return this builder
+         */
+        public @NonNull Builder virtualThreadsIfSupported() {
+            if (VirtualThreads.isSupported()) {
+                this.asyncExecutor = VirtualThreads.newThreadPerTaskExecutor("event-bus-async-");
+            }
+            return this;
+        }
+
+        /**
+         * Sets the executor that off-thread subscribers are called on, this is the async executor (null) by default.
+         * An off-thread subscriber is handed the event without the firing thread waiting for it, see
+         * {@link org.geysermc.event.subscribe.Subscribe#offThread()}.
+         *
+         * @param offThreadExecutor the executor to use, or null to use the async executor
+         * @return this builder
+         */
+        public @NonNull Builder offThreadExecutor(@Nullable Executor offThreadExecutor) {
+            this.offThreadExecutor = offThreadExecutor;
+            return this;
+        }
+
+        /**
+         * Sets the pool that the subscribers of {@link AsyncEvent}s are called on concurrently, this is disabled (null)
+         * by default. The subscribers of the same post order are then called concurrently, and the subscribers of the
+         * next post order are only called once all of them have finished. This keeps the order between the post orders
+         * while cutting the latency of events with many independent subscribers, e.g. several extensions that each do
+         * I/O. Subscribers of the same post order can't rely on the event being cancelled by one of the others.
+         * <p>
+         * This only applies to events that implement {@link AsyncEvent}, other events keep calling their subscribers
+         * one after the other.
+         *
+         * @param parallelTiers the pool to call the subscribers on, or null to call them one after the other
+         * @return this builder
+         */
+        public @NonNull Builder parallelTiers(@Nullable ForkJoinPool parallelTiers) {
+            this.parallelTiers = parallelTiers;
+            return this;
+        }
+
+        /**
+         * Sets whether a specialized dispatcher should be generated for every event class, this is disabled by default.
+         * A generated dispatcher calls the subscribers in a straight line instead of looping over them, so the JIT can
+         * inline the subscribers of hot events. A dispatcher is only generated once the same subscribers of an event
+         * class have been fired a thousand times, and again after its subscribers change, so this is meant for buses
+         * whose subscribers rarely change after startup.
+         *
+         * @param generatedDispatchers whether dispatchers should be generated
+         * @return this builder
+         */
+        public @NonNull Builder generatedDispatchers(boolean generatedDispatchers) {
+            this.generatedDispatchers = generatedDispatchers;
+            return this;
+        }
+
+        /**
+         * Sets the metrics that every subscriber invocation should be recorded to, this is disabled (null) by default.
+         * Recording measures every invocation, which also means that generated dispatchers aren't used while metrics
+         * are enabled. When metrics are disabled, the only cost is a single null check per fire.
+         *
+         * @param metrics the metrics to record to, or null to disable metrics
+         * @return this builder
+         * @see RecordingBusMetrics
+         */
+        public @NonNull Builder metrics(@Nullable BusMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets the sample rate of metrics, this is 1 (every fire is timed) by default. With a sample rate of N, the
+         * subscriber invocations of a fire are timed with a chance of one in N. The invocations of the other fires
+         * are still counted, but skip reading the clock, which makes metrics cheap enough for the hottest events.
+         *
+         * @param metricsSampleRate one in how many fires should be timed, at least 1
+         * @return this builder
+         * @see org.geysermc.event.bus.impl.metrics.MetricsSnapshot#estimatedTotalNanos()
+         */
+        public @NonNull Builder metricsSampleRate(int metricsSampleRate) {
+            if (metricsSampleRate < 1) {
+                throw new IllegalArgumentException("metricsSampleRate has to be at least 1");
+            }
+            this.metricsSampleRate = metricsSampleRate;
+            return this;
+        }
+
+        /**
+         * Sets the watchdog that should check for slow subscribers, this is disabled (null) by default. Like metrics,
+         * a watchdog means that every invocation is tracked and that generated dispatchers aren't used.
+         *
+         * @param watchdog the watchdog to use, or null to disable the watchdog
+         * @return this builder
+         */
+        public @NonNull Builder watchdog(@Nullable SubscriberWatchdog watchdog) {
+            this.watchdog = watchdog;
+            return this;
+        }
+
+        /**
+         * Sets whether the bus should emit Java Flight Recorder events, this is disabled by default. The bus then emits
+         * an event for fired events, for subscriber invocations and for dispatch table rebuilds, which are only
+         * recorded when they take longer than their threshold (configurable in the recording settings). Flight recorder
+         * events require Java 11 or newer, this option has no effect on older Java versions.
+         *
+         * @param flightRecorderEvents whether flight recorder events should be emitted
+         * @return this builder
+         */
+        public @NonNull Builder flightRecorderEvents(boolean flightRecorderEvents) {
+            this.flightRecorderEvents = flightRecorderEvents;
+            return this;
+        }
+
+        /**
+         * Orders the async fires of the given event class (and its subclasses) per key. Events with the same key, e.g.
+         * the same player session, are fired one after the other in the order that they were passed to
+         * {@link org.geysermc.event.bus.BaseBus#fireAsync(Object)}, while events with different keys are fired
+         * concurrently on the async executor. Keys are shared between event classes, so events of different classes
+         * with the same key are ordered as well. Events whose key is null are fired without ordering.
+         *
+         * @param eventClass the event class to order
+         * @param keyExtractor extracts the key of an event
+         * @param <T> the event class
+         * @return this builder
+         */
+        @SuppressWarnings("unchecked")
+        public @NonNull <T> Builder orderAsyncBy(
+                @NonNull Class<T> eventClass, @NonNull Function<? super T, ?> keyExtractor) {
+            Objects.requireNonNull(eventClass, "eventClass");
+            Objects.requireNonNull(keyExtractor, "keyExtractor");
+            asyncOrderKeys.put(eventClass, (Function<Object, Object>) keyExtractor);
+            return this;
+        }
+
+        /**
+         * Coalesces the deferred events of the given event class (and its subclasses) per key, see
+         * {@link org.geysermc.event.bus.BaseBus#fireLater(Object)}. Of the events with the same key that are deferred
+         * until the same flush, only the latest is fired, e.g. only the latest move event of every player session.
+         * Events whose key is null aren't coalesced. Keys are only compared within the given event class.
+         *
+         * @param eventClass the event class to coalesce
+         * @param keyExtractor extracts the key of an event
+         * @param <T> the event class
+         * @return this builder
+         */
+        @SuppressWarnings("unchecked")
+        public @NonNull <T> Builder coalesceBy(
+                @NonNull Class<T> eventClass, @NonNull Function<? super T, ?> keyExtractor) {
+            Objects.requireNonNull(eventClass, "eventClass");
+            Objects.requireNonNull(keyExtractor, "keyExtractor");
+            coalescingKeys.put(eventClass, (Function<Object, Object>) keyExtractor);
+            return this;
+        }
+
+        /**
+         * Queues fires in a ring buffer that is handled by the given amount of consumer threads, this is disabled by
+         * default. {@link org.geysermc.event.bus.BaseBus#fire(Object)} then only claims a slot in the buffer and
+         * returns right away with an empty result, it only waits when the buffer is full. The consumers fire the
+         * queued events in batches and log the exceptions. Every other way of firing is unaffected.
+         * <p>
+         * With a single consumer the queued events are fired in the order they were queued in. With more consumers
+         * every event is fired by one of them, concurrently with the events that the others fire. A fire from a
+         * consumer thread itself isn't queued, but fired right away. Call
+         * {@link org.geysermc.event.bus.BaseBus#shutdown()} to fire the remaining events and stop the consumers.
+         *
+         * @param bufferSize the amount of slots of the ring buffer, a power of two
+         * @param consumerThreads the amount of consumer threads, at least one
+         * @param waitStrategy how the consumer threads wait for new fires
+         * @return this builder
+         */
+        public @NonNull Builder queued(int bufferSize, int consumerThreads, @NonNull WaitStrategy waitStrategy) {
+            if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+                throw new IllegalArgumentException("The buffer size has to be a power of two, got " + bufferSize);
+            }
+            if (consumerThreads <= 0) {
+                throw new IllegalArgumentException("There has to be at least one consumer thread");
+            }
+            this.queueSize = bufferSize;
+            this.queueConsumers = consumerThreads;
+            this.queueWaitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+            return this;
+        }
+
+        public @NonNull BusOptions build() {
+            return new BusOptions(this);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The events that have been deferred until the next flush, see {@link BaseBusImpl#fireLater(Object)}. Any thread can
+ * defer events, the queue is drained by the thread that flushes.
+ * <p>
+ * An event with a coalescing key replaces the pending event with the same key. It takes over the position of the
+ * pending event, so a stream of coalesced events can't be pushed back indefinitely by newer events.
+ */
+final class DeferredEvents {
+    private final Queue<Slot> queue = new ConcurrentLinkedQueue<>();
+    private final Map<Object, Slot> coalescing = new ConcurrentHashMap<>();
+    private final Function<Object, @Nullable Object> coalescingKey;
+
+    /**
+     * @param coalescingKey returns the coalescing key of an event, or null if the event can't be coalesced
+     */
+    DeferredEvents(Function<Object, @Nullable Object> coalescingKey) {
+        this.coalescingKey = coalescingKey;
+    }
+
+    void add(Object event) {
+        Object key = coalescingKey.apply(event);
+        if (key == null) {
+            queue.add(new Slot(null, event));
+            return;
+        }
+        // the slot is replaced and drained under the lock of its key, so an event is never lost or delivered twice
+        coalescing.compute(key, (ignored, pending) -> {
+            if (pending != null) {
+                pending.event = event;
+                return pending;
+            }
+            Slot slot = new Slot(key, event);
+            queue.add(slot);
+            return slot;
+        });
+    }
+
+    /**
+     * Removes and returns every event that was deferred before this call. Events that are deferred while draining,
+     * e.g. by the subscribers of drained events, are left for the next drain. Drains are serialised, so the end marker
+     * that a drain stops at can't be taken by another drain.
+     */
+    synchronized List<Object> drain() {
+        Slot end = new Slot(null, null);
+        queue.add(end);
+
+        List<Object> events = new ArrayList<>();
+        Slot slot;
+        while ((slot = queue.poll()) != end) {
+            if (slot.key != null) {
+                // newer events with the same key get a new slot from here on
+                coalescing.remove(slot.key, slot);
+            }
+            events.add(slot.event);
+        }
+        return events;
+    }
+
+    private static final class Slot {
+        final @Nullable Object key;
+        volatile Object event;
+
+        Slot(@Nullable Object key, Object event) {
+            this.key = key;
+            this.event = event;
+        }
+    }
+}
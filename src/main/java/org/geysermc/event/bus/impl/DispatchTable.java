@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.PostOrder;
+import org.geysermc.event.bus.impl.util.EventHierarchy;
+import org.geysermc.event.subscribe.Subscriber;
+
+/**
+ * All the subscribers that have to be called when an event of a specific class is fired, already sorted by their
+ * {@link PostOrder}. A table is never modified once created, a change in subscribers results in a new table that is
+ * either created from scratch or patched from the previous table.
+ */
+final class DispatchTable {
+    private static final PostOrder[] ORDERS = PostOrder.values();
+
+    /**
+     * The amount of fires after which the dispatcher of a table is generated. Tables that are replaced before then, e.g.
+     * while subscribers keep being registered and unregistered, don't generate a class each.
+     */
+    static final int GENERATE_AFTER_FIRES = 1_000;
+
+    final Class<?> eventClass;
+    /**
+     * The event class itself and the ancestors of the event class whose subscribers are part of this table.
+     */
+    final EventHierarchy hierarchy;
+
+    /**
+     * The subscribers sorted by post order. Within a post order the subscribers of an ancestor come before the
+     * subscribers of the next ancestor in {@link EventHierarchy#ancestors()}, and are in registration order. This
+     * doesn't include the keyed and filtered subscribers.
+     */
+    final Subscriber<?>[] subscribers;
+    /**
+     * For every subscriber, the index in {@link EventHierarchy#ancestors()} of the event class that it was registered
+     * for. This can differ from its {@link Subscriber#eventClass()}, which can be a superclass of it.
+     */
+    private final int[] ancestorIndexes;
+    /**
+     * The keyed and filtered subscribers, or null if there are none. Only the subscribers whose key matches the key of
+     * the event (or whose filter accepts the event) are called, after the other subscribers of the same post order.
+     */
+    final @Nullable KeyedRoutes keyed;
+    /**
+     * The index of the first subscriber of every post order, followed by the amount of subscribers.
+     */
+    private final int[] orderOffsets;
+    /**
+     * For every subscriber, the index of the first subscriber from that subscriber onwards that ignores cancelled
+     * events, or the amount of subscribers if there is none. A subscriber ignores cancelled events if this is its
+     * own index. Once the event is cancelled, every subscriber up to that index can be skipped. This is null when
+     * the event class isn't {@link org.geysermc.event.Cancellable}, then every subscriber is called.
+     */
+    final int @Nullable [] nextIgnoringCancelled;
+
+    private final boolean generateDispatcher;
+    /**
+     * The fires left until the dispatcher is generated, or 0 if it has been generated or shouldn't be generated. This is
+     * deliberately not synchronized: a race at worst generates the dispatcher twice.
+     */
+    private int firesUntilGenerated;
+    /**
+     * The generated dispatcher of this table, or null if it hasn't been generated (yet). See {@link #dispatcher()}.
+     */
+    private volatile @Nullable BiFunction<Object, Map<Subscriber<?>, Throwable>, Map<Subscriber<?>, Throwable>>
+            dispatcher;
+
+    private DispatchTable(
+            Class<?> eventClass,
+            EventHierarchy hierarchy,
+            Subscriber<?>[] sortedSubscribers,
+            int[] ancestorIndexes,
+            @Nullable KeyedRoutes keyed,
+            boolean generateDispatcher) {
+        this.eventClass = eventClass;
+        this.hierarchy = hierarchy;
+        this.subscribers = sortedSubscribers;
+        this.ancestorIndexes = ancestorIndexes;
+        this.keyed = keyed;
+
+        this.orderOffsets = new int[ORDERS.length + 1];
+        int index = 0;
+        for (PostOrder order : ORDERS) {
+            orderOffsets[order.ordinal()] = index;
+            while (index < subscribers.length && subscribers[index].order() == order) {
+                index++;
+            }
+        }
+        orderOffsets[ORDERS.length] = subscribers.length;
+
+        if (hierarchy.cancellable()) {
+            this.nextIgnoringCancelled = new int[subscribers.length];
+            int next = subscribers.length;
+            for (int i = subscribers.length - 1; i >= 0; i--) {
+                if (subscribers[i].ignoreCancelled()) {
+                    next = i;
+                }
+                nextIgnoringCancelled[i] = next;
+            }
+        } else {
+            this.nextIgnoringCancelled = null;
+        }
+
+        this.generateDispatcher = generateDispatcher;
+        // a generated dispatcher can't route keyed or filtered subscribers
+        this.firesUntilGenerated = generateDispatcher && keyed == null ? GENERATE_AFTER_FIRES : 0;
+    }
+
+    /**
+     * Creates a table for the given subscribers, which have to be grouped by ancestor in the order of
+     * {@link EventHierarchy#ancestors()}.
+     *
+     * @param ancestorIndexes for every subscriber, the index of the ancestor that it was registered for
+     */
+    static DispatchTable create(
+            Class<?> eventClass,
+            EventHierarchy hierarchy,
+            Subscriber<?>[] subscribers,
+            int[] ancestorIndexes,
+            @Nullable KeyedRoutes keyed,
+            boolean generateDispatcher) {
+        // a stable sort by post order, so subscribers of the same order keep their registration order
+        Subscriber<?>[] sorted = new Subscriber<?>[subscribers.length];
+        int[] sortedAncestorIndexes = new int[subscribers.length];
+        int index = 0;
+        for (PostOrder order : ORDERS) {
+            for (int i = 0; i < subscribers.length; i++) {
+                if (subscribers[i].order() == order) {
+                    sorted[index] = subscribers[i];
+                    sortedAncestorIndexes[index++] = ancestorIndexes[i];
+                }
+            }
+        }
+        return new DispatchTable(eventClass, hierarchy, sorted, sortedAncestorIndexes, keyed, generateDispatcher);
+    }
+
+    /**
+     * Returns a table with the given subscriber inserted at the position it would have if this table was created
+     * again, or this table if it already contains the subscriber.
+     *
+     * @param registeredClass the event class that the subscriber was registered for, part of the hierarchy
+     * @param subscriber the subscriber to add
+     */
+    DispatchTable withSubscriber(Class<?> registeredClass, Subscriber<?> subscriber) {
+        if (indexOf(subscriber) != -1) {
+            return this;
+        }
+
+        // after the subscribers of the same and earlier ancestors
+        int ancestor = hierarchy.indexOf(registeredClass);
+        PostOrder order = subscriber.order();
+        int index = end(order);
+        while (index > start(order) && ancestorIndexes[index - 1] > ancestor) {
+            index--;
+        }
+
+        Subscriber<?>[] patched = new Subscriber<?>[subscribers.length + 1];
+        System.arraycopy(subscribers, 0, patched, 0, index);
+        patched[index] = subscriber;
+        System.arraycopy(subscribers, index, patched, index + 1, subscribers.length - index);
+
+        int[] patchedAncestorIndexes = new int[patched.length];
+        System.arraycopy(ancestorIndexes, 0, patchedAncestorIndexes, 0, index);
+        patchedAncestorIndexes[index] = ancestor;
+        System.arraycopy(ancestorIndexes, index, patchedAncestorIndexes, index + 1, subscribers.length - index);
+        return new DispatchTable(eventClass, hierarchy, patched, patchedAncestorIndexes, keyed, generateDispatcher);
+    }
+
+    /**
+     * Returns a table without the given subscriber, or this table if it doesn't contain the subscriber.
+     *
+     * @param subscriber the subscriber to remove
+     */
+    DispatchTable withoutSubscriber(Subscriber<?> subscriber) {
+        int index = indexOf(subscriber);
+        if (index == -1) {
+            return this;
+        }
+
+        Subscriber<?>[] patched = new Subscriber<?>[subscribers.length - 1];
+        System.arraycopy(subscribers, 0, patched, 0, index);
+        System.arraycopy(subscribers, index + 1, patched, index, patched.length - index);
+
+        int[] patchedAncestorIndexes = new int[patched.length];
+        System.arraycopy(ancestorIndexes, 0, patchedAncestorIndexes, 0, index);
+        System.arraycopy(ancestorIndexes, index + 1, patchedAncestorIndexes, index, patched.length - index);
+        return new DispatchTable(eventClass, hierarchy, patched, patchedAncestorIndexes, keyed, generateDispatcher);
+    }
+
+    /**
+     * Returns a table with the given keyed or filtered subscriber added to its routes, or this table if it already
+     * contains the subscriber. See {@link #withSubscriber(Class, Subscriber)}.
+     *
+     * @param registeredClass the event class that the subscriber was registered for, part of the hierarchy
+     * @param subscriber the subscriber to add
+     * @param key the key extractor and key of the subscriber
+     */
+    DispatchTable withKeyedSubscriber(Class<?> registeredClass, Subscriber<?> subscriber, SubscriberKey key) {
+        int ancestor = hierarchy.indexOf(registeredClass);
+        KeyedRoutes patched = keyed == null
+                ? KeyedRoutes.create(new Subscriber<?>[] {subscriber}, new SubscriberKey[] {key}, new int[] {ancestor})
+                : keyed.withSubscriber(subscriber, key, ancestor);
+        if (patched == keyed) {
+            return this;
+        }
+        return new DispatchTable(eventClass, hierarchy, subscribers, ancestorIndexes, patched, generateDispatcher);
+    }
+
+    /**
+     * Returns a table without the given keyed or filtered subscriber, or this table if it doesn't contain the
+     * subscriber.
+     *
+     * @param subscriber the subscriber to remove
+     * @param key the key extractor and key of the subscriber
+     */
+    DispatchTable withoutKeyedSubscriber(Subscriber<?> subscriber, SubscriberKey key) {
+        KeyedRoutes patched = keyed == null ? null : keyed.withoutSubscriber(subscriber, key);
+        if (patched == keyed) {
+            return this;
+        }
+        return new DispatchTable(eventClass, hierarchy, subscribers, ancestorIndexes, patched, generateDispatcher);
+    }
+
+    private int indexOf(Subscriber<?> subscriber) {
+        // only the subscribers of the same post order have to be checked
+        PostOrder order = subscriber.order();
+        for (int i = start(order); i < end(order); i++) {
+            if (subscribers[i].equals(subscriber)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the generated dispatcher of this table, or null if this table should be dispatched by looping over the
+     * subscribers. Every call counts as a fire, the dispatcher is generated once the table has been fired
+     * {@link #GENERATE_AFTER_FIRES} times. See {@link DispatcherGenerator}.
+     */
+    @Nullable BiFunction<Object, Map<Subscriber<?>, Throwable>, Map<Subscriber<?>, Throwable>> dispatcher() {
+        BiFunction<Object, Map<Subscriber<?>, Throwable>, Map<Subscriber<?>, Throwable>> dispatcher = this.dispatcher;
+        if (dispatcher == null && firesUntilGenerated > 0 && --firesUntilGenerated == 0) {
+            dispatcher = DispatcherGenerator.generate(hierarchy.cancellable(), subscribers);
+            this.dispatcher = dispatcher;
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Returns the index of the first subscriber with the given post order.
+     */
+    int start(@NonNull PostOrder order) {
+        return orderOffsets[order.ordinal()];
+    }
+
+    /**
+     * Returns the index after the last subscriber with the given post order.
+     */
+    int end(@NonNull PostOrder order) {
+        return orderOffsets[order.ordinal() + 1];
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.Cancellable;
+import org.geysermc.event.subscribe.Subscriber;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+
+/**
+ * Generates a dispatcher for a {@link DispatchTable}. The dispatcher calls every subscriber of the table in a straight
+ * line, with the subscribers as constants and the cancelled check only where it's needed. This makes every call site
+ * monomorphic, so the JIT can inline the subscribers of hot events.
+ * <p>
+ * The dispatcher takes the exceptions that were thrown so far (or null) and returns them with the exceptions that its
+ * subscribers threw added, the same way as the loop in {@link BaseBusImpl} adds them.
+ */
+final class DispatcherGenerator {
+    /**
+     * Tables with more subscribers fall back to the loop, the JIT wouldn't inline such a dispatcher anyway.
+     */
+    static final int MAX_SUBSCRIBERS = 32;
+
+    private static final LambdaType<BiFunction<Object, Map<Subscriber<?>, Throwable>, Map<Subscriber<?>, Throwable>>>
+            DISPATCHER_TYPE = new LambdaType<
+                    BiFunction<Object, Map<Subscriber<?>, Throwable>, Map<Subscriber<?>, Throwable>>>() {};
+
+    // (Object event, Map thrown)Map
+    private static final MethodType STEP_TYPE = MethodType.methodType(Map.class, Object.class, Map.class);
+
+    private static final MethodHandle INVOKE;
+    private static final MethodHandle INVOKE_IF_NOT_CANCELLED;
+    private static final MethodHandle NOTHING;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType helperType = STEP_TYPE.insertParameterTypes(0, Subscriber.class);
+        try {
+            INVOKE = lookup.findStatic(DispatcherGenerator.class, "invoke", helperType);
+            INVOKE_IF_NOT_CANCELLED = lookup.findStatic(DispatcherGenerator.class, "invokeIfNotCancelled", helperType);
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+        NOTHING = MethodHandles.dropArguments(MethodHandles.identity(Map.class), 0, Object.class);
+    }
+
+    private DispatcherGenerator() {}
+
+    static @Nullable BiFunction<Object, Map<Subscriber<?>, Throwable>, Map<Subscriber<?>, Throwable>> generate(
+            boolean cancellable, Subscriber<?>[] subscribers) {
+        if (subscribers.length == 0 || subscribers.length > MAX_SUBSCRIBERS) {
+            return null;
+        }
+
+        MethodHandle dispatcher = steps(subscribers, cancellable, 0, subscribers.length);
+        dispatcher = dispatcher.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+        return LambdaFactory.create(DISPATCHER_TYPE, dispatcher);
+    }
+
+    /**
+     * Combines the subscribers from start (inclusive) to end (exclusive) into a single (Object event, Map thrown)Map
+     * handle. The handles are combined as a balanced tree, so the depth only grows logarithmically.
+     */
+    private static MethodHandle steps(Subscriber<?>[] subscribers, boolean cancellable, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return NOTHING;
+        }
+        if (length == 1) {
+            Subscriber<?> subscriber = subscribers[start];
+            MethodHandle step = cancellable && !subscriber.ignoreCancelled() ? INVOKE_IF_NOT_CANCELLED : INVOKE;
+            return step.bindTo(subscriber);
+        }
+
+        int middle = start + length / 2;
+        MethodHandle first = steps(subscribers, cancellable, start, middle);
+        MethodHandle second = steps(subscribers, cancellable, middle, end);
+        // second(event, first(event, thrown)), which has (Object event, Object event, Map thrown) as parameters
+        MethodHandle sequence = MethodHandles.collectArguments(second, 1, first);
+        return MethodHandles.permuteArguments(sequence, STEP_TYPE, 0, 0, 1);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Map invoke(Subscriber subscriber, Object event, Map thrown) {
+        try {
+            subscriber.invoke(event);
+        } catch (Throwable throwable) {
+            thrown = BaseBusImpl.addThrown(thrown, subscriber, throwable);
+        }
+        return thrown;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Map invokeIfNotCancelled(Subscriber subscriber, Object event, Map thrown) {
+        if (((Cancellable) event).isCancelled()) {
+            return thrown;
+        }
+        return invoke(subscriber, event, thrown);
+    }
+}
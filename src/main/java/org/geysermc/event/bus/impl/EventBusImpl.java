@@ -28,6 +28,8 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.geysermc.event.PostOrder;
 import org.geysermc.event.bus.EventBus;
@@ -37,6 +39,12 @@ import org.geysermc.event.subscribe.Subscriber;
 public abstract class EventBusImpl<E, S extends Subscriber<? extends E>> extends BaseBusImpl<E, S>
         implements EventBus<E, S> {
 
+    public EventBusImpl() {}
+
+    public EventBusImpl(@NonNull BusOptions options) {
+        super(options);
+    }
+
     protected abstract <H, T extends E, B extends Subscriber<T>> B makeSubscription(
             @NonNull Class<T> eventClass,
             @NonNull Subscribe subscribe,
@@ -52,7 +60,16 @@ public abstract class EventBusImpl<E, S extends Subscriber<? extends E>> extends
         findSubscriptions(listener, (eventType, subscribe, handler) -> {
             S subscriber = (S) makeSubscription(eventType, subscribe, listener, handler);
 
-            register(eventType, subscriber);
+            register(eventType, subscriber, subscribe);
+        });
+    }
+
+    @Override
+    public void registerAll(@NonNull Object... listeners) {
+        batch(() -> {
+            for (Object listener : listeners) {
+                register(listener);
+            }
         });
     }
 
@@ -71,6 +88,58 @@ public abstract class EventBusImpl<E, S extends Subscriber<? extends E>> extends
         return subscription;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NonNull <T extends E, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder,
+            boolean offThread) {
+        U subscription = makeSubscription(eventClass, consumer, postOrder);
+        register(eventClass, (S) subscription, offThread);
+        return subscription;
+    }
+
+    @Override
+    @NonNull public <T extends E, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass, @NonNull Predicate<? super T> filter, @NonNull Consumer<T> consumer) {
+        return subscribe(eventClass, filter, consumer, PostOrder.NORMAL);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NonNull <T extends E, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass,
+            @NonNull Predicate<? super T> filter,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder) {
+        U subscription = makeSubscription(eventClass, consumer, postOrder);
+        register(eventClass, (S) subscription, filter);
+        return subscription;
+    }
+
+    @Override
+    @NonNull public <T extends E, K, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass,
+            @NonNull Function<? super T, ? extends K> keyExtractor,
+            @NonNull K key,
+            @NonNull Consumer<T> consumer) {
+        return subscribe(eventClass, keyExtractor, key, consumer, PostOrder.NORMAL);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NonNull <T extends E, K, U extends Subscriber<T>> U subscribe(
+            @NonNull Class<T> eventClass,
+            @NonNull Function<? super T, ? extends K> keyExtractor,
+            @NonNull K key,
+            @NonNull Consumer<T> consumer,
+            @NonNull PostOrder postOrder) {
+        U subscription = makeSubscription(eventClass, consumer, postOrder);
+        register(eventClass, (S) subscription, keyExtractor, key);
+        return subscription;
+    }
+
     @Override
     public void unregisterAll() {
         super.unsubscribeAll();
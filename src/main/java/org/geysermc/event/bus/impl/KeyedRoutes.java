@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.subscribe.Subscriber;
+
+/**
+ * The keyed and filtered subscribers of a dispatch table, see {@link SubscriberKey}. The subscribers are grouped by key
+ * extractor or filter, so every key only has to be extracted (and every filter only has to be tested) once per fire,
+ * and within a group they're indexed by key.
+ * <p>
+ * Every array is sorted by post order, then by the ancestor that the subscriber was registered for and then by
+ * registration order, like the subscribers of {@link DispatchTable}. The groups are in the order of their first
+ * subscriber, so the call order doesn't depend on hashes. Routes are never modified once created, but can be patched
+ * like a dispatch table.
+ */
+final class KeyedRoutes {
+    private final Group[] groups;
+
+    private KeyedRoutes(Group[] groups) {
+        this.groups = groups;
+    }
+
+    /**
+     * Creates the routes of the given keyed subscribers.
+     *
+     * @param subscribers the keyed subscribers
+     * @param keys the key extractor and key of every keyed subscriber
+     * @param ancestorIndexes for every subscriber, the index of the ancestor that it was registered for
+     * @return the routes, or null if there are no keyed subscribers
+     */
+    static @Nullable KeyedRoutes create(Subscriber<?>[] subscribers, SubscriberKey[] keys, int[] ancestorIndexes) {
+        if (subscribers.length == 0) {
+            return null;
+        }
+
+        Entry[] entries = new Entry[subscribers.length];
+        for (int i = 0; i < subscribers.length; i++) {
+            entries[i] = new Entry(subscribers[i], keys[i], ancestorIndexes[i]);
+        }
+        Arrays.sort(entries, KeyedRoutes::compare);
+
+        // Key extractors and filters are usually lambdas without an equals implementation, so they're grouped by
+        // identity. The entries are sorted, so a group is created at its first subscriber.
+        Map<Object, Integer> groupIndexes = new IdentityHashMap<>();
+        List<Entry> firsts = new ArrayList<>();
+        List<Map<Object, List<Entry>>> grouped = new ArrayList<>();
+        for (Entry entry : entries) {
+            Integer groupIndex = groupIndexes.get(entry.key.group);
+            if (groupIndex == null) {
+                groupIndex = grouped.size();
+                groupIndexes.put(entry.key.group, groupIndex);
+                firsts.add(entry);
+                grouped.add(new HashMap<>());
+            }
+            grouped.get(groupIndex)
+                    .computeIfAbsent(entry.key.key, ignored -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        Group[] groups = new Group[grouped.size()];
+        for (int i = 0; i < groups.length; i++) {
+            Map<Object, List<Entry>> byKey = grouped.get(i);
+            Map<Object, Route> routes = new HashMap<>(byKey.size() * 2);
+            byKey.forEach((key, keyEntries) -> routes.put(key, new Route(keyEntries.toArray(new Entry[0]))));
+            groups[i] = new Group(firsts.get(i), routes);
+        }
+        return new KeyedRoutes(groups);
+    }
+
+    /**
+     * Returns routes with the given subscriber added, or these routes if they already contain the subscriber.
+     *
+     * @param subscriber the subscriber to add
+     * @param key the key extractor and key of the subscriber
+     * @param ancestorIndex the index of the ancestor that the subscriber was registered for
+     */
+    KeyedRoutes withSubscriber(Subscriber<?> subscriber, SubscriberKey key, int ancestorIndex) {
+        Entry entry = new Entry(subscriber, key, ancestorIndex);
+        int groupIndex = indexOfGroup(key.group);
+        if (groupIndex == -1) {
+            Map<Object, Route> routes = new HashMap<>();
+            routes.put(key.key, new Route(new Entry[] {entry}));
+            return withGroup(-1, new Group(entry, routes));
+        }
+
+        Group group = groups[groupIndex];
+        Route route = group.routes.get(key.key);
+        Route patched = route == null ? new Route(new Entry[] {entry}) : route.with(entry);
+        if (patched == route) {
+            return this;
+        }
+        Map<Object, Route> routes = new HashMap<>(group.routes);
+        routes.put(key.key, patched);
+        Entry first = compare(entry, group.first) < 0 ? entry : group.first;
+        return withGroup(groupIndex, new Group(first, routes));
+    }
+
+    /**
+     * Returns routes without the given subscriber, or these routes if they don't contain the subscriber.
+     *
+     * @param subscriber the subscriber to remove
+     * @param key the key extractor and key of the subscriber
+     * @return the patched routes, or null if no keyed subscribers are left
+     */
+    @Nullable KeyedRoutes withoutSubscriber(Subscriber<?> subscriber, SubscriberKey key) {
+        int groupIndex = indexOfGroup(key.group);
+        if (groupIndex == -1) {
+            return this;
+        }
+        Group group = groups[groupIndex];
+        Route route = group.routes.get(key.key);
+        int index = route == null ? -1 : route.indexOf(subscriber);
+        if (index == -1) {
+            return this;
+        }
+
+        Map<Object, Route> routes = new HashMap<>(group.routes);
+        if (route.entries.length == 1) {
+            routes.remove(key.key);
+            if (routes.isEmpty()) {
+                return withGroup(groupIndex, null);
+            }
+        } else {
+            routes.put(key.key, route.without(index));
+        }
+
+        Entry first = group.first;
+        if (route.entries[index] == first) {
+            // the first entry of every route is the first subscriber of its key
+            first = null;
+            for (Route remaining : routes.values()) {
+                if (first == null || compare(remaining.entries[0], first) < 0) {
+                    first = remaining.entries[0];
+                }
+            }
+        }
+        return withGroup(groupIndex, new Group(first, routes));
+    }
+
+    /**
+     * Returns routes with the group at the given index replaced by the given group, which is moved to the position of
+     * its first subscriber.
+     *
+     * @param replaced the index of the group to replace, or -1 to add a group
+     * @param patched the group to add, or null to only remove the replaced group
+     * @return the patched routes, or null if no groups are left
+     */
+    private @Nullable KeyedRoutes withGroup(int replaced, @Nullable Group patched) {
+        List<Group> patchedGroups = new ArrayList<>(Arrays.asList(groups));
+        if (replaced != -1) {
+            patchedGroups.remove(replaced);
+        }
+        if (patched != null) {
+            int index = 0;
+            while (index < patchedGroups.size() && compare(patchedGroups.get(index).first, patched.first) < 0) {
+                index++;
+            }
+            patchedGroups.add(index, patched);
+        }
+        return patchedGroups.isEmpty() ? null : new KeyedRoutes(patchedGroups.toArray(new Group[0]));
+    }
+
+    private int indexOfGroup(Object group) {
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i].first.key.group == group) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the amount of key extractors and filters.
+     */
+    int groups() {
+        return groups.length;
+    }
+
+    /**
+     * Extracts the key of the given event for the given group and returns the subscribers of that key, sorted by post
+     * order.
+     *
+     * @return the matching subscribers, or null if no subscriber of the group matches
+     */
+    Subscriber<?> @Nullable [] matching(int group, Object event) {
+        Group matched = groups[group];
+        Object key = matched.first.key.keyExtractor.apply(event);
+        if (key == null) {
+            return null;
+        }
+        Route route = matched.routes.get(key);
+        return route == null ? null : route.subscribers;
+    }
+
+    /**
+     * Returns the subscribers of the given group, sorted by post order.
+     */
+    List<Subscriber<?>> subscribers(int group) {
+        return sorted(groups[group].routes.values());
+    }
+
+    /**
+     * Returns every keyed subscriber, sorted by post order.
+     */
+    List<Subscriber<?>> all() {
+        List<Route> routes = new ArrayList<>();
+        for (Group group : groups) {
+            routes.addAll(group.routes.values());
+        }
+        return sorted(routes);
+    }
+
+    private static List<Subscriber<?>> sorted(Iterable<Route> routes) {
+        List<Entry> entries = new ArrayList<>();
+        for (Route route : routes) {
+            entries.addAll(Arrays.asList(route.entries));
+        }
+        entries.sort(KeyedRoutes::compare);
+
+        List<Subscriber<?>> subscribers = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            subscribers.add(entry.subscriber);
+        }
+        return subscribers;
+    }
+
+    /**
+     * Compares by post order, then by the ancestor that the subscriber was registered for and then by registration
+     * order. No two entries are equal, so the order never depends on hashes.
+     */
+    private static int compare(Entry first, Entry second) {
+        int order = first.subscriber.order().compareTo(second.subscriber.order());
+        if (order != 0) {
+            return order;
+        }
+        if (first.ancestorIndex != second.ancestorIndex) {
+            return Integer.compare(first.ancestorIndex, second.ancestorIndex);
+        }
+        return Long.compare(first.key.sequence, second.key.sequence);
+    }
+
+    /**
+     * A keyed subscriber with everything that decides its position.
+     */
+    private static final class Entry {
+        final Subscriber<?> subscriber;
+        final SubscriberKey key;
+        final int ancestorIndex;
+
+        Entry(Subscriber<?> subscriber, SubscriberKey key, int ancestorIndex) {
+            this.subscriber = subscriber;
+            this.key = key;
+            this.ancestorIndex = ancestorIndex;
+        }
+    }
+
+    /**
+     * The subscribers that share a key extractor or filter, indexed by key.
+     */
+    private static final class Group {
+        /**
+         * The first subscriber of the group, its key also holds the key extractor of the group.
+         */
+        final Entry first;
+
+        final Map<Object, Route> routes;
+
+        Group(Entry first, Map<Object, Route> routes) {
+            this.first = first;
+            this.routes = routes;
+        }
+    }
+
+    /**
+     * The subscribers of a single key, sorted.
+     */
+    private static final class Route {
+        final Entry[] entries;
+        /**
+         * The subscribers of {@link #entries}, so a fire doesn't have to unpack them.
+         */
+        final Subscriber<?>[] subscribers;
+
+        Route(Entry[] entries) {
+            this.entries = entries;
+            this.subscribers = new Subscriber<?>[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                subscribers[i] = entries[i].subscriber;
+            }
+        }
+
+        int indexOf(Subscriber<?> subscriber) {
+            for (int i = 0; i < subscribers.length; i++) {
+                if (subscribers[i].equals(subscriber)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Route with(Entry entry) {
+            if (indexOf(entry.subscriber) != -1) {
+                return this;
+            }
+            int index = 0;
+            while (index < entries.length && compare(entries[index], entry) < 0) {
+                index++;
+            }
+            Entry[] patched = new Entry[entries.length + 1];
+            System.arraycopy(entries, 0, patched, 0, index);
+            patched[index] = entry;
+            System.arraycopy(entries, index, patched, index + 1, entries.length - index);
+            return new Route(patched);
+        }
+
+        Route without(int index) {
+            Entry[] patched = new Entry[entries.length - 1];
+            System.arraycopy(entries, 0, patched, 0, index);
+            System.arraycopy(entries, index + 1, patched, index, patched.length - index);
+            return new Route(patched);
+        }
+    }
+}
@@ -24,13 +24,15 @@
  */
 package org.geysermc.event.bus.impl;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimaps;
-import com.google.common.collect.SetMultimap;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.geysermc.event.PostOrder;
 import org.geysermc.event.bus.OwnedEventBus;
@@ -41,8 +43,13 @@ import org.geysermc.event.subscribe.Subscriber;
 public abstract class OwnedEventBusImpl<O, E, S extends OwnedSubscriber<O, ? extends E>> extends BaseBusImpl<E, S>
         implements OwnedEventBus<O, E, S> {
 
-    private final SetMultimap<O, Subscriber<?>> ownedSubscribers =
-            Multimaps.synchronizedSetMultimap(HashMultimap.create());
+    private final Map<O, Set<Subscriber<?>>> ownedSubscribers = new ConcurrentHashMap<>();
+
+    public OwnedEventBusImpl() {}
+
+    public OwnedEventBusImpl(@NonNull BusOptions options) {
+        super(options);
+    }
 
     protected abstract <L, T extends E, B extends OwnedSubscriber<O, T>> B makeSubscription(
             @NonNull O owner,
@@ -69,12 +76,70 @@ public abstract class OwnedEventBusImpl<O, E, S extends OwnedSubscriber<O, ? ext
             @NonNull PostOrder postOrder) {
         OwnedSubscriber<O, T> subscription = makeSubscription(owner, eventClass, handler, postOrder);
 
-        synchronized (ownedSubscribers) {
-            if (ownedSubscribers.put(owner, subscription)) {
-                register(eventClass, (S) subscription);
-            }
-            return (U) subscription;
-        }
+        registerOwned(owner, subscription, () -> register(eventClass, (S) subscription));
+        return (U) subscription;
+    }
+
+    @Override
+    @NonNull @SuppressWarnings("unchecked")
+    public <T extends E, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Consumer<T> handler,
+            @NonNull PostOrder postOrder,
+            boolean offThread) {
+        OwnedSubscriber<O, T> subscription = makeSubscription(owner, eventClass, handler, postOrder);
+
+        registerOwned(owner, subscription, () -> register(eventClass, (S) subscription, offThread));
+        return (U) subscription;
+    }
+
+    @Override
+    @NonNull public <T extends E, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Predicate<? super T> filter,
+            @NonNull Consumer<T> handler) {
+        return subscribe(owner, eventClass, filter, handler, PostOrder.NORMAL);
+    }
+
+    @Override
+    @NonNull @SuppressWarnings("unchecked")
+    public <T extends E, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Predicate<? super T> filter,
+            @NonNull Consumer<T> handler,
+            @NonNull PostOrder postOrder) {
+        OwnedSubscriber<O, T> subscription = makeSubscription(owner, eventClass, handler, postOrder);
+
+        registerOwned(owner, subscription, () -> register(eventClass, (S) subscription, filter));
+        return (U) subscription;
+    }
+
+    @Override
+    @NonNull public <T extends E, K, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Function<? super T, ? extends K> keyExtractor,
+            @NonNull K key,
+            @NonNull Consumer<T> handler) {
+        return subscribe(owner, eventClass, keyExtractor, key, handler, PostOrder.NORMAL);
+    }
+
+    @Override
+    @NonNull @SuppressWarnings("unchecked")
+    public <T extends E, K, U extends OwnedSubscriber<O, T>> U subscribe(
+            @NonNull O owner,
+            @NonNull Class<T> eventClass,
+            @NonNull Function<? super T, ? extends K> keyExtractor,
+            @NonNull K key,
+            @NonNull Consumer<T> handler,
+            @NonNull PostOrder postOrder) {
+        OwnedSubscriber<O, T> subscription = makeSubscription(owner, eventClass, handler, postOrder);
+
+        registerOwned(owner, subscription, () -> register(eventClass, (S) subscription, keyExtractor, key));
+        return (U) subscription;
     }
 
     @Override
@@ -83,14 +148,45 @@ public abstract class OwnedEventBusImpl<O, E, S extends OwnedSubscriber<O, ? ext
         findSubscriptions(listener, (eventClass, subscribe, handler) -> {
             S subscriber = (S) makeSubscription(owner, eventClass, subscribe, listener, handler);
 
-            register(eventClass, subscriber);
-            ownedSubscribers.put(owner, subscriber);
+            registerOwned(owner, subscriber, () -> register(eventClass, subscriber, subscribe));
+        });
+    }
+
+    @Override
+    public void registerAll(@NonNull O owner, @NonNull Object... listeners) {
+        batch(() -> {
+            for (Object listener : listeners) {
+                register(owner, listener);
+            }
         });
     }
 
     @Override
     public void unregisterAll(@NonNull O owner) {
-        unsubscribeMany(castGenericSet(ownedSubscribers.removeAll(owner)));
+        Set<Subscriber<?>> owned = ownedSubscribers.remove(owner);
+        if (owned != null) {
+            unsubscribeMany(castGenericSet(owned));
+        }
+    }
+
+    /**
+     * Runs the given registration of the given subscriber and then adds the subscriber to the owned subscribers of the
+     * given owner. The registration can run code of the user (filters, metrics) that registers as well, so it doesn't
+     * run under the lock of the owner. A concurrent {@link #unregisterAll(Object)} that misses the subscriber leaves it
+     * owned, so it's removed by the next one.
+     */
+    private void registerOwned(O owner, Subscriber<?> subscriber, Runnable registration) {
+        // registered first, a rejected registration shouldn't be owned
+        registration.run();
+        // the set is only modified inside compute, so it doesn't have to be a concurrent set. Adding it in compute makes
+        // sure that it isn't added to a set that unregisterAll has removed already.
+        ownedSubscribers.compute(owner, (key, owned) -> {
+            if (owned == null) {
+                owned = new HashSet<>();
+            }
+            owned.add(subscriber);
+            return owned;
+        });
     }
 
     @Override
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands events from any amount of producer threads to a fixed set of consumer threads through a preallocated ring
+ * buffer, see {@link BusOptions.Builder#queued(int, int, WaitStrategy)}.
+ * <p>
+ * Every event has a sequence number. A producer claims the next sequence with a single compare-and-set, stores the
+ * event in the slot of that sequence and marks the slot as published. The consumers share a work sequence: a consumer
+ * claims every published event after the work sequence (up to {@link #MAX_BATCH}) and hands them to the handler as a
+ * single batch. A producer only has to wait when the buffer is full, i.e. when the slot it claimed still holds an event
+ * that hasn't been handled yet.
+ * <p>
+ * Shutting down sets {@link #CLOSED} on the cursor, with the same compare-and-set that producers claim sequences
+ * with. Every sequence is therefore either claimed before the shutdown, and handled before the consumers stop, or
+ * rejected. The consumer threads are only started by the first publish.
+ */
+final class RingBufferDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RingBufferDispatcher.class);
+
+    /**
+     * The maximum amount of events that a consumer claims at once, so other consumers can share a long run of events.
+     */
+    static final int MAX_BATCH = 256;
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 1_000_000;
+
+    /**
+     * Set on the cursor once the dispatcher has been shut down, after which no sequence can be claimed.
+     */
+    private static final long CLOSED = 1L << 62;
+
+    private final Object[] entries;
+    /**
+     * For every slot, the round of the sequence that was last published in it. The slot of a sequence is published
+     * once this is equal to {@link #round(long)} of the sequence.
+     */
+    private final AtomicIntegerArray published;
+
+    private final int mask;
+    private final int roundShift;
+
+    /**
+     * The next sequence that a producer claims, with {@link #CLOSED} set once the dispatcher has been shut down.
+     */
+    private final AtomicLong cursor = new AtomicLong();
+    /**
+     * The last sequence that has been claimed by a consumer.
+     */
+    private final AtomicLong workSequence = new AtomicLong(-1);
+    /**
+     * For every consumer, a sequence before every event that it's still handling. A slot can be reused once every
+     * consumer sequence has passed it.
+     */
+    private final AtomicLong[] consumerSequences;
+    /**
+     * The last known minimum of the consumer sequences, so producers only look at them when the buffer seems full.
+     */
+    private volatile long cachedGatingSequence = -1;
+
+    private final WaitStrategy waitStrategy;
+    /**
+     * For every consumer, 1 if it's parked and hasn't been unparked yet.
+     */
+    private final AtomicIntegerArray parked;
+    private final AtomicInteger parkedConsumers = new AtomicInteger();
+    private final Consumer<List<Object>> handler;
+    private final Thread[] consumers;
+
+    private volatile boolean started;
+
+    /**
+     * @param bufferSize the amount of slots, a power of two
+     * @param consumerThreads the amount of consumer threads
+     * @param waitStrategy how idle consumers wait for new events
+     * @param handler handles a batch of events, the list is reused after the handler returns
+     */
+    RingBufferDispatcher(
+            int bufferSize, int consumerThreads, WaitStrategy waitStrategy, Consumer<List<Object>> handler) {
+        this.entries = new Object[bufferSize];
+        this.published = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            // no slot has been published in the first round yet
+            published.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.roundShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.waitStrategy = waitStrategy;
+        this.handler = handler;
+
+        this.parked = new AtomicIntegerArray(consumerThreads);
+        this.consumerSequences = new AtomicLong[consumerThreads];
+        this.consumers = new Thread[consumerThreads];
+        for (int i = 0; i < consumerThreads; i++) {
+            consumerSequences[i] = new AtomicLong(-1);
+            int consumer = i;
+            consumers[i] = new Thread(() -> consume(consumer), "event-bus-consumer-" + i);
+            // shutdown drains the buffer, without it the consumers shouldn't keep the JVM alive
+            consumers[i].setDaemon(true);
+        }
+    }
+
+    private void ensureStarted() {
+        if (started) {
+            return;
+        }
+        synchronized (this) {
+            if (!started) {
+                for (Thread consumer : consumers) {
+                    consumer.start();
+                }
+                started = true;
+            }
+        }
+    }
+
+    /**
+     * Publishes the given event, which only waits when the buffer is full.
+     *
+     * @throws IllegalStateException if the dispatcher has been shut down
+     */
+    void publish(Object event) {
+        // before claiming, so a shutdown that follows the claim sees the started consumers
+        ensureStarted();
+
+        long sequence;
+        do {
+            sequence = cursor.get();
+            if ((sequence & CLOSED) != 0) {
+                throw new IllegalStateException("The bus has been shut down");
+            }
+        } while (!cursor.compareAndSet(sequence, sequence + 1));
+
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long gatingSequence;
+            while (wrapPoint > (gatingSequence = minimumConsumerSequence())) {
+                // the buffer is full, wait for the consumers to free the slot
+                LockSupport.parkNanos(1);
+            }
+            cachedGatingSequence = gatingSequence;
+        }
+
+        int index = (int) sequence & mask;
+        entries[index] = event;
+        // Releases the event to the consumer that reads the published round. A volatile write instead of a lazy one, so
+        // it can't be reordered with the read of parkedConsumers below: either this sees the increment of a consumer
+        // that is about to park, or that consumer sees this event before parking.
+        published.set(index, round(sequence));
+
+        if (parkedConsumers.get() != 0) {
+            unparkOne();
+        }
+    }
+
+    private void unparkOne() {
+        for (int i = 0; i < consumers.length; i++) {
+            if (parked.compareAndSet(i, 1, 0)) {
+                parkedConsumers.decrementAndGet();
+                LockSupport.unpark(consumers[i]);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the calling thread is one of the consumer threads.
+     */
+    boolean isConsumerThread() {
+        Thread current = Thread.currentThread();
+        for (Thread consumer : consumers) {
+            if (consumer == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops accepting events and waits until the consumers have handled every event that was claimed before.
+     */
+    void shutdown() throws InterruptedException {
+        long current;
+        do {
+            current = cursor.get();
+        } while ((current & CLOSED) == 0 && !cursor.compareAndSet(current, current | CLOSED));
+
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+        }
+        for (Thread consumer : consumers) {
+            if (consumer != Thread.currentThread()) {
+                consumer.join();
+            }
+        }
+    }
+
+    private void consume(int consumer) {
+        AtomicLong ownSequence = consumerSequences[consumer];
+        List<Object> batch = new ArrayList<>();
+        int idleTries = 0;
+        while (true) {
+            long current = workSequence.get();
+            // everything up to the work sequence has been claimed by a consumer, the others gate their own claims
+            ownSequence.lazySet(current);
+
+            long cursorValue = cursor.get();
+            long claimed = (cursorValue & ~CLOSED) - 1;
+            long available = highestPublished(current + 1, claimed);
+            if (available > current) {
+                long end = Math.min(available, current + MAX_BATCH);
+                if (!workSequence.compareAndSet(current, end)) {
+                    continue;
+                }
+                for (long sequence = current + 1; sequence <= end; sequence++) {
+                    int index = (int) sequence & mask;
+                    batch.add(entries[index]);
+                    entries[index] = null;
+                }
+                try {
+                    handler.accept(batch);
+                } catch (Throwable throwable) {
+                    LOGGER.error("An exception occurred while handling a batch of events", throwable);
+                } finally {
+                    batch.clear();
+                }
+                idleTries = 0;
+                continue;
+            }
+
+            // claimed sequences are always published eventually, so they have to be waited for
+            if ((cursorValue & CLOSED) != 0 && current >= claimed) {
+                return;
+            }
+            idleTries = idle(consumer, idleTries, current);
+        }
+    }
+
+    private int idle(int consumer, int tries, long current) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                return tries;
+            case YIELD:
+                Thread.yield();
+                return tries;
+            default:
+                if (tries < SPIN_TRIES) {
+                    return tries + 1;
+                }
+                if (tries < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                    return tries + 1;
+                }
+                parked.set(consumer, 1);
+                parkedConsumers.incrementAndGet();
+                long cursorValue = cursor.get();
+                // an event published before the increment doesn't unpark this consumer
+                if ((cursorValue & CLOSED) == 0 && highestPublished(current + 1, cursorValue - 1) <= current) {
+                    // timed only as a backstop, a producer that publishes after the increment unparks this consumer
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                // unless a producer already did while unparking this consumer
+                if (parked.compareAndSet(consumer, 1, 0)) {
+                    parkedConsumers.decrementAndGet();
+                }
+                return 0;
+        }
+    }
+
+    /**
+     * Returns the highest sequence from the given lowest sequence onwards up to the given highest sequence, for which
+     * every sequence in between has been published. Returns the given lowest sequence minus one if it hasn't been
+     * published yet.
+     */
+    private long highestPublished(long lowest, long highest) {
+        for (long sequence = lowest; sequence <= highest; sequence++) {
+            if (published.get((int) sequence & mask) != round(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return highest;
+    }
+
+    private long minimumConsumerSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (AtomicLong sequence : consumerSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+    private int round(long sequence) {
+        return (int) (sequence >>> roundShift);
+    }
+}
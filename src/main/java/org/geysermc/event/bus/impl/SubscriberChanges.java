@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.geysermc.event.subscribe.Subscriber;
+
+/**
+ * The subscribers that have been added and removed during a batch, grouped by event class. The changes are applied
+ * together once the batch ends, see {@link BaseBusImpl#batch(Runnable)}.
+ */
+final class SubscriberChanges {
+    final Map<Class<?>, Set<Subscriber<?>>> added = new LinkedHashMap<>();
+    final Map<Class<?>, Set<Subscriber<?>>> removed = new LinkedHashMap<>();
+
+    void add(Class<?> eventClass, Subscriber<?> subscriber) {
+        added.computeIfAbsent(eventClass, key -> new LinkedHashSet<>()).add(subscriber);
+    }
+
+    void remove(Class<?> eventClass, Subscriber<?> subscriber) {
+        Set<Subscriber<?>> addedSubscribers = added.get(eventClass);
+        if (addedSubscribers != null) {
+            addedSubscribers.remove(subscriber);
+        }
+        // the subscriber can also have been added before this batch, removals are applied before additions
+        removed.computeIfAbsent(eventClass, key -> new LinkedHashSet<>()).add(subscriber);
+    }
+
+    void clear() {
+        added.clear();
+        removed.clear();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The key extractor and key of a keyed subscriber, which is only called for events whose extracted key equals its key.
+ * A filtered subscriber is a keyed subscriber as well, its filter is a key extractor that returns true for the events
+ * that pass the filter.
+ */
+final class SubscriberKey {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    /**
+     * The subscribers with the same group share the key extraction, see {@link KeyedRoutes}.
+     */
+    final Object group;
+
+    final Function<Object, Object> keyExtractor;
+    final Object key;
+    /**
+     * Increases with every registration, so keyed subscribers can be kept in registration order whether their routes
+     * are created from scratch or patched.
+     */
+    final long sequence;
+
+    private SubscriberKey(Object group, Function<Object, Object> keyExtractor, Object key) {
+        this.group = group;
+        this.keyExtractor = keyExtractor;
+        this.key = key;
+        this.sequence = SEQUENCE.getAndIncrement();
+    }
+
+    static SubscriberKey keyed(Function<Object, Object> keyExtractor, Object key) {
+        return new SubscriberKey(keyExtractor, keyExtractor, key);
+    }
+
+    static SubscriberKey filtered(Predicate<Object> filter) {
+        // events that don't pass have no key at all, so the group is skipped without a lookup
+        return new SubscriberKey(filter, event -> filter.test(event) ? Boolean.TRUE : null, Boolean.TRUE);
+    }
+}
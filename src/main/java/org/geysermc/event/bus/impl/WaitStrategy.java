@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl;
+
+/**
+ * How the consumer threads of a queued bus wait for new events, see {@link BusOptions.Builder#queued(int, int,
+ * WaitStrategy)}. The strategies trade the latency of picking up an event against the CPU that an idle consumer uses.
+ */
+public enum WaitStrategy {
+    /**
+     * Keeps checking for new events, which has the lowest latency but keeps every consumer thread on a core. This is
+     * only suitable when every consumer has a core of its own.
+     */
+    BUSY_SPIN,
+    /**
+     * Keeps checking for new events but yields the thread in between, which leaves the core to other threads that are
+     * ready to run.
+     */
+    YIELD,
+    /**
+     * Spins and yields for a short while and then parks the thread until an event is fired. An idle consumer uses no
+     * CPU, but picking up the first event after being idle takes longer.
+     */
+    PARK
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.metrics;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.bus.impl.BusOptions;
+import org.geysermc.event.subscribe.Subscriber;
+
+/**
+ * Receives a measurement for every subscriber invocation of a bus, see {@link BusOptions.Builder#metrics(BusMetrics)}.
+ * The methods are called on the thread that fired the event, so implementations have to be thread-safe and should
+ * return quickly.
+ * <p>
+ * When a sample rate is set with {@link BusOptions.Builder#metricsSampleRate(int)}, only the invocations of sampled
+ * fires are timed and reported to {@link #record(Subscriber, Class, long, Throwable)}. All other invocations are
+ * reported to {@link #recordUntimed(Subscriber, Class, Throwable)}.
+ *
+ * @see RecordingBusMetrics
+ */
+public interface BusMetrics {
+    /**
+     * Called after a subscriber has been invoked.
+     *
+     * @param subscriber the subscriber that was invoked
+     * @param eventClass the class of the event that was fired
+     * @param durationNanos how long the invocation took, in nanoseconds
+     * @param failure the exception the subscriber threw, or null if it didn't throw
+     */
+    void record(
+            @NonNull Subscriber<?> subscriber,
+            @NonNull Class<?> eventClass,
+            long durationNanos,
+            @Nullable Throwable failure);
+
+    /**
+     * Called after a subscriber has been invoked as part of a fire that wasn't sampled, so the invocation wasn't
+     * timed.
+     *
+     * @param subscriber the subscriber that was invoked
+     * @param eventClass the class of the event that was fired
+     * @param failure the exception the subscriber threw, or null if it didn't throw
+     */
+    default void recordUntimed(
+            @NonNull Subscriber<?> subscriber, @NonNull Class<?> eventClass, @Nullable Throwable failure) {}
+
+    /**
+     * Called once a subscriber has been registered, before it's added to the dispatch tables. It isn't called again
+     * when a subscriber that is already registered is registered again.
+     *
+     * @param subscriber the subscriber that is registered
+     */
+    default void subscribed(@NonNull Subscriber<?> subscriber) {}
+
+    /**
+     * Called after a subscriber has been unsubscribed, so per-subscriber data can be released.
+     *
+     * @param subscriber the subscriber that was unsubscribed
+     */
+    default void unsubscribed(@NonNull Subscriber<?> subscriber) {}
+}
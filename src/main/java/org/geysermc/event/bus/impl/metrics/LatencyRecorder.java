@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records invocations of one or more subscribers. Every counter is a {@link LongAdder}, so threads firing events at
+ * the same time don't contend on the same counter.
+ */
+final class LatencyRecorder {
+    /**
+     * Bucket i contains the invocations that took less than 2^i nanoseconds (and at least 2^(i-1)), the last bucket
+     * contains everything that took longer than the second last.
+     */
+    private static final int BUCKETS = 40;
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder timedInvocations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    LatencyRecorder() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long durationNanos, boolean failed) {
+        long duration = Math.max(0, durationNanos);
+        recordUntimed(failed);
+        timedInvocations.increment();
+        totalNanos.add(duration);
+        maxNanos.accumulate(duration);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(duration))].increment();
+    }
+
+    void recordUntimed(boolean failed) {
+        invocations.increment();
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    static long bucketUpperBound(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    MetricsSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new MetricsSnapshot(
+                invocations.sum(), timedInvocations.sum(), failures.sum(), totalNanos.sum(), maxNanos.get(), counts);
+    }
+}
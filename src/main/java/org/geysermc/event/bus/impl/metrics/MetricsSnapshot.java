@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.metrics;
+
+import java.util.Arrays;
+
+/**
+ * The metrics of a subscriber, event class or owner at the moment the snapshot was taken. The latencies are kept in
+ * a histogram with power of two buckets, so percentiles are accurate to within a factor of two.
+ * <p>
+ * When only some fires are sampled, the latencies are based on the timed invocations only. The invocation and failure
+ * counts always include every invocation, {@link #estimatedTotalNanos()} scales the measured time up to all of them.
+ */
+public final class MetricsSnapshot {
+    private final long invocations;
+    private final long timedInvocations;
+    private final long failures;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] buckets;
+
+    MetricsSnapshot(
+            long invocations, long timedInvocations, long failures, long totalNanos, long maxNanos, long[] buckets) {
+        this.invocations = invocations;
+        this.timedInvocations = timedInvocations;
+        this.failures = failures;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Returns how often the subscriber(s) have been invoked.
+     */
+    public long invocations() {
+        return invocations;
+    }
+
+    /**
+     * Returns how many of the invocations have been timed. This is the same as {@link #invocations()} unless a sample
+     * rate is used.
+     */
+    public long timedInvocations() {
+        return timedInvocations;
+    }
+
+    /**
+     * Returns how often the subscriber(s) threw an exception.
+     */
+    public long failures() {
+        return failures;
+    }
+
+    /**
+     * Returns the time spent in the timed invocations in total, in nanoseconds.
+     */
+    public long totalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the longest invocation, in nanoseconds.
+     */
+    public long maxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the estimated time spent in all invocations in total, in nanoseconds. This is the measured total scaled
+     * up by the ratio of invocations to timed invocations.
+     */
+    public long estimatedTotalNanos() {
+        return timedInvocations == 0 ? 0 : (long) (meanNanos() * invocations);
+    }
+
+    /**
+     * Returns the average invocation time of the timed invocations, in nanoseconds.
+     */
+    public double meanNanos() {
+        return timedInvocations == 0 ? 0 : (double) totalNanos / timedInvocations;
+    }
+
+    /**
+     * Returns the upper bound of the given percentile of invocation times, in nanoseconds.
+     *
+     * @param percentile the percentile, between 0 and 100
+     */
+    public long percentileNanos(double percentile) {
+        long total = 0;
+        for (long bucket : buckets) {
+            total += bucket;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(total * Math.max(0, Math.min(100, percentile)) / 100);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= Math.max(1, target)) {
+                return Math.min(LatencyRecorder.bucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{"
+                + "invocations=" + invocations
+                + ", timedInvocations=" + timedInvocations
+                + ", failures=" + failures
+                + ", totalNanos=" + totalNanos
+                + ", maxNanos=" + maxNanos
+                + ", buckets=" + Arrays.toString(buckets)
+                + '}';
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.subscribe.OwnedSubscriber;
+import org.geysermc.event.subscribe.Subscriber;
+
+/**
+ * A {@link BusMetrics} that keeps the invocation count, failure count and latency histogram of every subscriber,
+ * every event class and, for {@link OwnedSubscriber}s, every owner. The metrics of a subscriber are released once it
+ * is unsubscribed, the metrics of event classes and owners are kept. Invocations of a subscriber that are reported
+ * after it has been unsubscribed only count towards its event class and owner.
+ */
+public final class RecordingBusMetrics implements BusMetrics {
+    private final Map<Subscriber<?>, LatencyRecorder> subscribers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, LatencyRecorder> eventClasses = new ConcurrentHashMap<>();
+    private final Map<Object, LatencyRecorder> owners = new ConcurrentHashMap<>();
+    // a fire that was running when the subscriber got removed would otherwise create its recorder again
+    private final Set<Subscriber<?>> unsubscribed =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    @Override
+    public void record(
+            @NonNull Subscriber<?> subscriber,
+            @NonNull Class<?> eventClass,
+            long durationNanos,
+            @Nullable Throwable failure) {
+        boolean failed = failure != null;
+        LatencyRecorder subscriberRecorder = subscriberRecorder(subscriber);
+        if (subscriberRecorder != null) {
+            subscriberRecorder.record(durationNanos, failed);
+        }
+        recorder(eventClasses, eventClass).record(durationNanos, failed);
+        if (subscriber instanceof OwnedSubscriber) {
+            recorder(owners, ((OwnedSubscriber<?, ?>) subscriber).owner()).record(durationNanos, failed);
+        }
+    }
+
+    @Override
+    public void recordUntimed(
+            @NonNull Subscriber<?> subscriber, @NonNull Class<?> eventClass, @Nullable Throwable failure) {
+        boolean failed = failure != null;
+        LatencyRecorder subscriberRecorder = subscriberRecorder(subscriber);
+        if (subscriberRecorder != null) {
+            subscriberRecorder.recordUntimed(failed);
+        }
+        recorder(eventClasses, eventClass).recordUntimed(failed);
+        if (subscriber instanceof OwnedSubscriber) {
+            recorder(owners, ((OwnedSubscriber<?, ?>) subscriber).owner()).recordUntimed(failed);
+        }
+    }
+
+    @Override
+    public void subscribed(@NonNull Subscriber<?> subscriber) {
+        unsubscribed.remove(subscriber);
+    }
+
+    @Override
+    public void unsubscribed(@NonNull Subscriber<?> subscriber) {
+        // marked before the removal, so a racing fire either records into the removed recorder or sees the mark
+        unsubscribed.add(subscriber);
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Returns the metrics of every subscriber that has been invoked and hasn't been unsubscribed.
+     */
+    public @NonNull Map<Subscriber<?>, MetricsSnapshot> subscriberSnapshots() {
+        return snapshots(subscribers);
+    }
+
+    /**
+     * Returns the metrics of every event class that has been fired, combined for all its subscribers.
+     */
+    public @NonNull Map<Class<?>, MetricsSnapshot> eventClassSnapshots() {
+        return snapshots(eventClasses);
+    }
+
+    /**
+     * Returns the metrics of every owner whose subscribers have been invoked, combined for all its subscribers.
+     */
+    public @NonNull Map<Object, MetricsSnapshot> ownerSnapshots() {
+        return snapshots(owners);
+    }
+
+    /**
+     * Removes all the metrics that have been recorded so far.
+     */
+    public void reset() {
+        subscribers.clear();
+        eventClasses.clear();
+        owners.clear();
+    }
+
+    private @Nullable LatencyRecorder subscriberRecorder(Subscriber<?> subscriber) {
+        LatencyRecorder recorder = subscribers.get(subscriber);
+        if (recorder != null) {
+            return recorder;
+        }
+        return subscribers.computeIfAbsent(
+                subscriber, ignored -> unsubscribed.contains(subscriber) ? null : new LatencyRecorder());
+    }
+
+    private static <K> LatencyRecorder recorder(Map<K, LatencyRecorder> recorders, K key) {
+        LatencyRecorder recorder = recorders.get(key);
+        if (recorder != null) {
+            return recorder;
+        }
+        return recorders.computeIfAbsent(key, ignored -> new LatencyRecorder());
+    }
+
+    private static <K> Map<K, MetricsSnapshot> snapshots(Map<K, LatencyRecorder> recorders) {
+        Map<K, MetricsSnapshot> snapshots = new HashMap<>();
+        recorders.forEach((key, recorder) -> snapshots.put(key, recorder.snapshot()));
+        return Collections.unmodifiableMap(snapshots);
+    }
+}
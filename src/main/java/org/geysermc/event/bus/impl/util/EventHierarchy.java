@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.geysermc.event.Cancellable;
+
+/**
+ * The resolved hierarchy of an event class for a specific base type. Resolving a hierarchy requires reflection, so
+ * every hierarchy is only resolved once and then shared by every bus with the same base type.
+ */
+public final class EventHierarchy {
+    /**
+     * The hierarchies of every event class by base type. This is backed by a {@link ClassValue}, so the hierarchies
+     * of an event class can be unloaded together with the event class.
+     */
+    private static final ClassValue<Map<Class<?>, EventHierarchy>> HIERARCHIES =
+            new ClassValue<Map<Class<?>, EventHierarchy>>() {
+                @Override
+                protected Map<Class<?>, EventHierarchy> computeValue(Class<?> eventClass) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final Class<?>[] ancestors;
+    private final boolean cancellable;
+
+    private EventHierarchy(Class<?> eventClass, Class<?> base) {
+        this.ancestors = Utils.ancestorsThatUse(eventClass, base).toArray(new Class<?>[0]);
+        this.cancellable = Cancellable.class.isAssignableFrom(eventClass);
+    }
+
+    /**
+     * Returns the hierarchy of the given event class for the given base type.
+     *
+     * @param eventClass the event class
+     * @param base the base type of the events
+     */
+    public static @NonNull EventHierarchy of(@NonNull Class<?> eventClass, @NonNull Class<?> base) {
+        Map<Class<?>, EventHierarchy> hierarchies = HIERARCHIES.get(eventClass);
+        EventHierarchy hierarchy = hierarchies.get(base);
+        if (hierarchy != null) {
+            return hierarchy;
+        }
+        return hierarchies.computeIfAbsent(base, key -> new EventHierarchy(eventClass, key));
+    }
+
+    /**
+     * Returns the event class and the ancestors of the event class whose subscribers are called when the event is
+     * fired, see {@link Utils#ancestorsThatUse(Class, Class)}. The returned array is shared and must not be modified.
+     */
+    public Class<?> @NonNull [] ancestors() {
+        return ancestors;
+    }
+
+    /**
+     * Returns whether the given class is part of this hierarchy.
+     *
+     * @param type the class to look for
+     */
+    public boolean contains(@NonNull Class<?> type) {
+        return indexOf(type) != -1;
+    }
+
+    /**
+     * Returns the index of the given class in {@link #ancestors()}, or -1 if it isn't part of this hierarchy.
+     *
+     * @param type the class to look for
+     */
+    public int indexOf(@NonNull Class<?> type) {
+        for (int i = 0; i < ancestors.length; i++) {
+            if (ancestors[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the event class implements {@link Cancellable}.
+     */
+    public boolean cancellable() {
+        return cancellable;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.subscribe.Subscriber;
+
+/**
+ * Emits Java Flight Recorder events for the activity of a bus, which is only available on Java 11 and newer. This is
+ * the implementation for older Java versions that doesn't emit anything, the multi-release jar contains the
+ * implementation that is used on Java 11 and newer.
+ * <p>
+ * Every begin method returns a recording that has to be passed to the matching end method. The recording is null when
+ * the event isn't enabled in any running recording.
+ */
+public final class FlightRecorderEvents {
+    private FlightRecorderEvents() {}
+
+    /**
+     * Returns whether flight recorder events are supported by the running Java version.
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    public static @Nullable Object beginFire() {
+        return null;
+    }
+
+    public static void endFire(@Nullable Object recording, @NonNull Class<?> eventClass, int subscriberCount) {}
+
+    public static @Nullable Object beginInvoke() {
+        return null;
+    }
+
+    public static void endInvoke(
+            @Nullable Object recording, @NonNull Subscriber<?> subscriber, @NonNull Class<?> eventClass, boolean threw) {}
+
+    public static @Nullable Object beginTableBuild() {
+        return null;
+    }
+
+    public static void endTableBuild(@Nullable Object recording, @NonNull Class<?> eventClass, int ancestorCount) {}
+}
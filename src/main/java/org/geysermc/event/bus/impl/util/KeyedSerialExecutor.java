@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs tasks on an executor, one after the other for tasks with the same key and concurrently for tasks with different
+ * keys. Every key with pending tasks has a lock-free queue that is drained by a single task on the executor at a time,
+ * so there is no dedicated thread per key and a key without pending tasks takes no resources.
+ * <p>
+ * The executor has to accept every task, a key whose drain task is rejected stops running its tasks.
+ */
+public final class KeyedSerialExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyedSerialExecutor.class);
+    private static final int RETIRED = -1;
+
+    private final Executor executor;
+    private final Map<Object, KeyQueue> queues = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs the given task after every task that was executed with the same key before.
+     *
+     * @param key the key of the task
+     * @param task the task to run
+     */
+    public void execute(@NonNull Object key, @NonNull Runnable task) {
+        while (true) {
+            KeyQueue queue = queues.computeIfAbsent(key, KeyQueue::new);
+            if (queue.offer(task)) {
+                return;
+            }
+            // the queue became idle and is being removed, help removing it and create a new one
+            queues.remove(key, queue);
+        }
+    }
+
+    /**
+     * Returns the amount of keys with pending tasks.
+     */
+    public int activeKeys() {
+        return queues.size();
+    }
+
+    private final class KeyQueue implements Runnable {
+        private final Object key;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        /**
+         * The amount of tasks that have been offered and haven't finished yet, or {@link #RETIRED} once this queue is
+         * idle and about to be removed. The queue is drained whenever this goes from 0 to 1.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        KeyQueue(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds the given task, or returns false if this queue has been retired.
+         */
+        boolean offer(Runnable task) {
+            while (true) {
+                int current = pending.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                if (pending.compareAndSet(current, current + 1)) {
+                    tasks.add(task);
+                    if (current == 0) {
+                        executor.execute(this);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                while ((task = tasks.poll()) == null) {
+                    // the task is counted, but the offering thread is just about to add it
+                    Thread.yield();
+                }
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    LOGGER.error("An exception occurred while running a task for key {}", key, throwable);
+                }
+
+                if (pending.decrementAndGet() != 0) {
+                    continue;
+                }
+                // A task offered after this fails the compareAndSet and drains the queue again. Otherwise the queue is
+                // retired, and tasks offered after that create a new queue.
+                if (pending.compareAndSet(0, RETIRED)) {
+                    queues.remove(key, this);
+                }
+                return;
+            }
+        }
+    }
+}
@@ -24,11 +24,15 @@
  */
 package org.geysermc.event.bus.impl.util;
 
-import java.util.HashSet;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.geysermc.event.Cancellable;
 import org.geysermc.event.NotSubscribable;
 import org.geysermc.event.subscribe.Subscriber;
+import org.geysermc.event.subscribe.SubscriberIndex;
 
 public final class Utils {
     public static boolean isEventCancelled(Object event) {
@@ -39,17 +43,62 @@ public final class Utils {
         return subscriber.ignoreCancelled() || !isEventCancelled(event);
     }
 
+    /**
+     * Returns the generated {@link SubscriberIndex} of the given listener class, or null if it doesn't have one. An index
+     * that was generated for another listener class, e.g. a stale one, is ignored as well.
+     *
+     * @param listenerClass the listener class
+     */
+    public static @Nullable SubscriberIndex<?> subscriberIndex(Class<?> listenerClass) {
+        String indexName = listenerClass.getName() + SubscriberIndex.SUFFIX;
+
+        Class<?> indexClass;
+        try {
+            indexClass = Class.forName(indexName, true, listenerClass.getClassLoader());
+        } catch (ClassNotFoundException ignored) {
+            return null;
+        }
+
+        if (!SubscriberIndex.class.isAssignableFrom(indexClass) || indexedListener(indexClass) != listenerClass) {
+            return null;
+        }
+        try {
+            return (SubscriberIndex<?>) indexClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Failed to create subscriber index " + indexName, exception);
+        }
+    }
+
+    /**
+     * Returns the listener class that the given index class declares as the type argument of {@link SubscriberIndex},
+     * or null if it doesn't implement it directly.
+     */
+    private static @Nullable Type indexedListener(Class<?> indexClass) {
+        for (Type type : indexClass.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == SubscriberIndex.class) {
+                Type listener = ((ParameterizedType) type).getActualTypeArguments()[0];
+                // e.g. the index of a generic listener class
+                return listener instanceof ParameterizedType ? ((ParameterizedType) listener).getRawType() : listener;
+            }
+        }
+        return null;
+    }
+
     /**
      * Looks at all the superclasses and superinterfaces of a given class and checks if it is
      * assignable from the given base class. Superclasses and superinterfaces of the base class and
      * the base class itself are not included in the result, but the given class is included if a
      * super type is assignable.
      *
+     * <p>
+     * Every call resolves the hierarchy again, use {@link EventHierarchy#of(Class, Class)} for the memoized version.
+     *
      * @param clazz the class to look at
      * @param use the base class
      */
     public static Set<Class<?>> ancestorsThatUse(Class<?> clazz, Class<?> use) {
-        Set<Class<?>> types = new HashSet<>();
+        // a linked set, so that the order of the ancestors is the same every time
+        Set<Class<?>> types = new LinkedHashSet<>();
         ancestorsThatUse(types, clazz, use);
         return types;
     }
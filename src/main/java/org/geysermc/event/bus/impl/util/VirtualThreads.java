@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.util;
+
+import java.util.concurrent.ExecutorService;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Provides access to virtual threads, which are only available on Java 21 and newer. This is the implementation for
+ * older Java versions, the multi-release jar contains the implementation that is used on Java 21 and newer.
+ */
+public final class VirtualThreads {
+    private VirtualThreads() {}
+
+    /**
+     * Returns whether virtual threads are supported by the running Java version.
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task.
+     *
+     * @param namePrefix the prefix of the name of every thread, followed by a counter
+     * @return the created executor
+     * @throws UnsupportedOperationException if virtual threads are not {@link #isSupported() supported}
+     */
+    public static @NonNull ExecutorService newThreadPerTaskExecutor(@NonNull String namePrefix) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+    }
+}
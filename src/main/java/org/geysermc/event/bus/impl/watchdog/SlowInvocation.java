@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.watchdog;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.subscribe.OwnedSubscriber;
+import org.geysermc.event.subscribe.Subscriber;
+
+/**
+ * A subscriber invocation that has been running for longer than the threshold of a {@link SubscriberWatchdog}.
+ */
+public final class SlowInvocation {
+    private final Subscriber<?> subscriber;
+    private final Class<?> eventClass;
+    private final long elapsedNanos;
+    private final Thread thread;
+    private final StackTraceElement[] stackTrace;
+
+    SlowInvocation(
+            Subscriber<?> subscriber,
+            Class<?> eventClass,
+            long elapsedNanos,
+            Thread thread,
+            StackTraceElement[] stackTrace) {
+        this.subscriber = subscriber;
+        this.eventClass = eventClass;
+        this.elapsedNanos = elapsedNanos;
+        this.thread = thread;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * Returns the subscriber that is running slow.
+     */
+    public @NonNull Subscriber<?> subscriber() {
+        return subscriber;
+    }
+
+    /**
+     * Returns the owner of the subscriber, or null if the subscriber isn't an {@link OwnedSubscriber}.
+     */
+    public @Nullable Object owner() {
+        return subscriber instanceof OwnedSubscriber ? ((OwnedSubscriber<?, ?>) subscriber).owner() : null;
+    }
+
+    /**
+     * Returns the class of the event that the subscriber is handling.
+     */
+    public @NonNull Class<?> eventClass() {
+        return eventClass;
+    }
+
+    /**
+     * Returns how long the subscriber had been running when it was detected, in nanoseconds.
+     */
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the thread that is running the subscriber.
+     */
+    public @NonNull Thread thread() {
+        return thread;
+    }
+
+    /**
+     * Returns the stack trace of the thread at the moment the slow invocation was detected.
+     */
+    public StackTraceElement @NonNull [] stackTrace() {
+        return stackTrace.clone();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.watchdog;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.bus.impl.BusOptions;
+import org.geysermc.event.subscribe.Subscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects subscribers that take longer than a threshold to handle an event, see
+ * {@link BusOptions.Builder#watchdog(SubscriberWatchdog)}. Every thread that fires events has a slot with the
+ * subscriber it's currently running, which a background thread checks periodically. A slow invocation is reported once,
+ * while it's still running, together with a stack trace of the thread running it.
+ * <p>
+ * A watchdog can be shared by multiple buses. It keeps a background thread until it's closed.
+ */
+public final class SubscriberWatchdog implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubscriberWatchdog.class);
+
+    private final long thresholdNanos;
+    private final Consumer<SlowInvocation> reporter;
+
+    private final Queue<Slot> slots = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Slot> slot = ThreadLocal.withInitial(this::createSlot);
+    private final ScheduledExecutorService scanner;
+
+    /**
+     * Creates a watchdog that logs a warning for every subscriber invocation that takes longer than the threshold.
+     *
+     * @param threshold how long an invocation can take before it's reported
+     */
+    public SubscriberWatchdog(@NonNull Duration threshold) {
+        this(threshold, SubscriberWatchdog::log);
+    }
+
+    /**
+     * Creates a watchdog that reports every subscriber invocation that takes longer than the threshold to the given
+     * reporter. The reporter is called on the background thread of the watchdog.
+     *
+     * @param threshold how long an invocation can take before it's reported
+     * @param reporter the reporter of slow invocations
+     */
+    public SubscriberWatchdog(@NonNull Duration threshold, @NonNull Consumer<SlowInvocation> reporter) {
+        Objects.requireNonNull(threshold);
+        if (threshold.isNegative() || threshold.isZero()) {
+            throw new IllegalArgumentException("threshold has to be positive");
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.reporter = Objects.requireNonNull(reporter);
+
+        this.scanner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-bus-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // check twice per threshold, so an invocation is reported at most 1.5 thresholds after it started
+        long intervalNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), thresholdNanos / 2);
+        scanner.scheduleWithFixedDelay(this::scan, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Marks the start of a subscriber invocation on the current thread. Has to be followed by {@link #end(Slot)}.
+     *
+     * @return the slot of the current thread
+     */
+    public @NonNull Slot begin(@NonNull Subscriber<?> subscriber, @NonNull Class<?> eventClass) {
+        Slot current = slot.get();
+        current.begin(subscriber, eventClass);
+        return current;
+    }
+
+    /**
+     * Marks the end of a subscriber invocation that was started with {@link #begin(Subscriber, Class)}.
+     *
+     * @param slot the slot that was returned by begin
+     */
+    public void end(@NonNull Slot slot) {
+        slot.end();
+    }
+
+    private Slot createSlot() {
+        Slot created = new Slot(Thread.currentThread());
+        slots.add(created);
+        return created;
+    }
+
+    private void scan() {
+        long now = System.nanoTime();
+        Iterator<Slot> iterator = slots.iterator();
+        while (iterator.hasNext()) {
+            Slot current = iterator.next();
+            if (!current.thread.isAlive()) {
+                iterator.remove();
+                continue;
+            }
+
+            long start = current.startNanos;
+            if (start == 0 || start == current.reportedStartNanos || now - start < thresholdNanos) {
+                continue;
+            }
+            Subscriber<?> subscriber = current.subscriber;
+            Class<?> eventClass = current.eventClass;
+            StackTraceElement[] stackTrace = current.thread.getStackTrace();
+            // the invocation might have ended or another one might have started while reading
+            if (start != current.startNanos || subscriber == null || eventClass == null) {
+                continue;
+            }
+            current.reportedStartNanos = start;
+
+            try {
+                reporter.accept(new SlowInvocation(subscriber, eventClass, now - start, current.thread, stackTrace));
+            } catch (Throwable throwable) {
+                LOGGER.error("An exception occurred while reporting a slow subscriber", throwable);
+            }
+        }
+    }
+
+    private static void log(SlowInvocation invocation) {
+        Throwable stackTrace = new Throwable("Stack trace of " + invocation.thread().getName());
+        stackTrace.setStackTrace(invocation.stackTrace());
+        Object owner = invocation.owner();
+        LOGGER.warn(
+                "Subscriber {}{} has been handling event {} for {} ms",
+                invocation.subscriber().getClass().getName(),
+                owner != null ? " of " + owner : "",
+                invocation.eventClass().getSimpleName(),
+                TimeUnit.NANOSECONDS.toMillis(invocation.elapsedNanos()),
+                stackTrace);
+    }
+
+    /**
+     * Stops the background thread of this watchdog. Subscriber invocations are no longer checked afterwards.
+     */
+    @Override
+    public void close() {
+        scanner.shutdownNow();
+    }
+
+    /**
+     * The subscriber invocation that a thread is running. Only the outermost invocation is tracked when a subscriber
+     * fires another event, as it includes the time of the nested invocations.
+     */
+    public static final class Slot {
+        private final Thread thread;
+        private int depth;
+
+        private volatile @Nullable Subscriber<?> subscriber;
+        private volatile @Nullable Class<?> eventClass;
+        /**
+         * When the invocation started, or 0 when the thread isn't running a subscriber.
+         */
+        private volatile long startNanos;
+
+        private long reportedStartNanos;
+
+        private Slot(Thread thread) {
+            this.thread = thread;
+        }
+
+        private void begin(Subscriber<?> subscriber, Class<?> eventClass) {
+            if (depth++ != 0) {
+                return;
+            }
+            this.subscriber = subscriber;
+            this.eventClass = eventClass;
+            long start = System.nanoTime();
+            // 0 means that nothing is running
+            this.startNanos = start == 0 ? 1 : start;
+        }
+
+        private void end() {
+            if (--depth != 0) {
+                return;
+            }
+            this.startNanos = 0;
+            this.subscriber = null;
+            this.eventClass = null;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.geysermc.event.PostOrder;
 
@@ -46,4 +47,25 @@ public @interface Subscribe {
     @NonNull PostOrder postOrder() default PostOrder.NORMAL;
 
     boolean ignoreCancelled() default false;
+
+    /**
+     * The filter that the event has to pass before the method is called, which is {@link Predicate} itself when the
+     * method doesn't have a filter. The filter class needs a constructor without parameters. Every method with the same
+     * filter class shares a single filter instance, so the filter is only tested once per fire, and none of those
+     * methods are called when it rejects the event.
+     *
+     * @return the filter class of the event
+     */
+    @SuppressWarnings("rawtypes")
+    @NonNull Class<? extends Predicate> filter() default Predicate.class;
+
+    /**
+     * Whether the method is called off-thread. The event is then handed to the off-thread executor of the bus, and the
+     * fire doesn't wait for the method to finish. This is meant for monitors (e.g. logging or analytics) that don't
+     * modify the event, which then don't add to the latency of the fire. Exceptions thrown by the method are logged
+     * instead of being part of the result of the fire.
+     *
+     * @return whether the method is called off-thread
+     */
+    boolean offThread() default false;
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.subscribe;
+
+import java.lang.annotation.Annotation;
+import java.util.function.Predicate;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.geysermc.event.PostOrder;
+
+/**
+ * An instance of {@link Subscribe} that is created without reflection, see {@link SubscriberIndex}. It follows the
+ * contract of {@link Annotation}, so it's equal to an instance returned by reflection with the same values.
+ */
+final class SubscribeLiteral implements Subscribe {
+    private final PostOrder postOrder;
+    private final boolean ignoreCancelled;
+
+    @SuppressWarnings("rawtypes")
+    private final Class<? extends Predicate> filter;
+
+    private final boolean offThread;
+
+    @SuppressWarnings("rawtypes")
+    SubscribeLiteral(
+            @NonNull PostOrder postOrder,
+            boolean ignoreCancelled,
+            @NonNull Class<? extends Predicate> filter,
+            boolean offThread) {
+        this.postOrder = postOrder;
+        this.ignoreCancelled = ignoreCancelled;
+        this.filter = filter;
+        this.offThread = offThread;
+    }
+
+    @Override
+    public @NonNull PostOrder postOrder() {
+        return postOrder;
+    }
+
+    @Override
+    public boolean ignoreCancelled() {
+        return ignoreCancelled;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public @NonNull Class<? extends Predicate> filter() {
+        return filter;
+    }
+
+    @Override
+    public boolean offThread() {
+        return offThread;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Subscribe.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Subscribe)) {
+            return false;
+        }
+        Subscribe that = (Subscribe) o;
+        return postOrder == that.postOrder() && ignoreCancelled == that.ignoreCancelled() && filter == that.filter()
+                && offThread == that.offThread();
+    }
+
+    @Override
+    public int hashCode() {
+        // as defined by Annotation#hashCode
+        return (127 * "postOrder".hashCode() ^ postOrder.hashCode())
+                + (127 * "ignoreCancelled".hashCode() ^ Boolean.hashCode(ignoreCancelled))
+                + (127 * "filter".hashCode() ^ filter.hashCode())
+                + (127 * "offThread".hashCode() ^ Boolean.hashCode(offThread));
+    }
+
+    @Override
+    public String toString() {
+        return "@" + Subscribe.class.getName() + "(postOrder=" + postOrder + ", ignoreCancelled=" + ignoreCancelled
+                + ", filter=" + filter.getName() + ".class, offThread=" + offThread + ")";
+    }
+}
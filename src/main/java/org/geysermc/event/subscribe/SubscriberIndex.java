@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.subscribe;
+
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.geysermc.event.PostOrder;
+
+/**
+ * An index of the {@link Subscribe subscribe} methods declared by a listener class, generated at compile time by the
+ * events annotation processor. When a listener class has an index, registering it uses the index instead of looking
+ * up its methods through reflection and generating a handler for every method.
+ * <p>
+ * An index is looked up by name: it's in the same package as the listener class and its name is the binary name of the
+ * listener class without the package (so nested classes keep the {@code $} that separates them from their enclosing
+ * classes) followed by {@link #SUFFIX}. Indexes have to be public, have a public no-args constructor and implement
+ * this interface with the listener class as type argument.
+ *
+ * @param <L> the listener class
+ */
+public interface SubscriberIndex<L> {
+    String SUFFIX = "_SubscriberIndex";
+
+    /**
+     * Passes every subscribe method declared by the listener class to the given collector. Methods declared by
+     * superclasses are not included, those have an index of their own.
+     *
+     * @param collector the collector to pass the subscribe methods to
+     */
+    void collect(@NonNull Collector<L> collector);
+
+    /**
+     * Creates an instance of {@link Subscribe} with the given values, for use in generated indexes.
+     *
+     * @param postOrder       the post order
+     * @param ignoreCancelled whether cancelled events are ignored
+     * @param filter          the filter class, see {@link Subscribe#filter()}
+     * @param offThread       whether the method is called off-thread, see {@link Subscribe#offThread()}
+     * @return the created annotation instance
+     */
+    @SuppressWarnings("rawtypes")
+    static @NonNull Subscribe subscribe(
+            @NonNull PostOrder postOrder,
+            boolean ignoreCancelled,
+            @NonNull Class<? extends Predicate> filter,
+            boolean offThread) {
+        return new SubscribeLiteral(postOrder, ignoreCancelled, filter, offThread);
+    }
+
+    interface Collector<L> {
+        /**
+         * Accepts a single subscribe method.
+         *
+         * @param eventClass the event class the method subscribes to
+         * @param subscribe  the annotation of the method
+         * @param handler    calls the method on the given listener instance
+         * @param <T>        the event class
+         */
+        <T> void accept(@NonNull Class<T> eventClass, @NonNull Subscribe subscribe, @NonNull BiConsumer<L, T> handler);
+    }
+}
@@ -35,12 +35,14 @@ public abstract class SubscriberImpl<E> implements Subscriber<E> {
     protected final PostOrder postOrder;
     protected final boolean ignoreCancelled;
     protected final Consumer<E> handler;
+    protected final Class<?> listenerClass;
 
     public SubscriberImpl(@NonNull Class<E> eventClass, @NonNull Consumer<E> handler, @NonNull PostOrder postOrder) {
         this.eventClass = eventClass;
         this.postOrder = postOrder;
         this.ignoreCancelled = false;
         this.handler = handler;
+        this.listenerClass = handler.getClass();
     }
 
     public <H> SubscriberImpl(
@@ -53,6 +55,7 @@ public abstract class SubscriberImpl<E> implements Subscriber<E> {
         this.postOrder = postOrder;
         this.ignoreCancelled = ignoreCancelled;
         this.handler = (event) -> handler.accept(handlerInstance, event);
+        this.listenerClass = handlerInstance.getClass();
     }
 
     @Override
@@ -70,6 +73,14 @@ public abstract class SubscriberImpl<E> implements Subscriber<E> {
         return ignoreCancelled;
     }
 
+    /**
+     * Returns the class of the listener that this subscriber calls, or the class of the handler if it was subscribed
+     * with a handler instead. The class of a lambda is named after the class that declares the lambda.
+     */
+    public @NonNull Class<?> listenerClass() {
+        return listenerClass;
+    }
+
     @Override
     public void invoke(@NonNull E event) throws Throwable {
         handler.accept(event);
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus.impl.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.subscribe.OwnedSubscriber;
+import org.geysermc.event.subscribe.Subscriber;
+import org.geysermc.event.subscribe.impl.SubscriberImpl;
+
+/**
+ * Emits Java Flight Recorder events for the activity of a bus. This is the implementation for Java 11 and newer.
+ * <p>
+ * Every begin method returns a recording that has to be passed to the matching end method. The recording is null when
+ * the event isn't enabled in any running recording. The default thresholds can be changed in the recording settings.
+ * <p>
+ * Whether an event is enabled is checked on a shared instance that is never committed, so nothing is allocated on the
+ * dispatch path unless the event is enabled.
+ */
+public final class FlightRecorderEvents {
+    private static final EventFired FIRED = new EventFired();
+    private static final SubscriberInvoked INVOKED = new SubscriberInvoked();
+    private static final DispatchTableRebuilt REBUILT = new DispatchTableRebuilt();
+
+    private FlightRecorderEvents() {}
+
+    /**
+     * Returns whether flight recorder events are supported by the running Java version.
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    public static @Nullable Object beginFire() {
+        if (!FIRED.isEnabled()) {
+            return null;
+        }
+        EventFired recording = new EventFired();
+        recording.begin();
+        return recording;
+    }
+
+    public static void endFire(@Nullable Object recording, @NonNull Class<?> eventClass, int subscriberCount) {
+        if (recording == null) {
+            return;
+        }
+        EventFired fired = (EventFired) recording;
+        fired.end();
+        if (fired.shouldCommit()) {
+            fired.eventClass = eventClass;
+            fired.subscriberCount = subscriberCount;
+            fired.commit();
+        }
+    }
+
+    public static @Nullable Object beginInvoke() {
+        if (!INVOKED.isEnabled()) {
+            return null;
+        }
+        SubscriberInvoked recording = new SubscriberInvoked();
+        recording.begin();
+        return recording;
+    }
+
+    public static void endInvoke(
+            @Nullable Object recording, @NonNull Subscriber<?> subscriber, @NonNull Class<?> eventClass, boolean threw) {
+        if (recording == null) {
+            return;
+        }
+        SubscriberInvoked invoked = (SubscriberInvoked) recording;
+        invoked.end();
+        if (invoked.shouldCommit()) {
+            // the class of the subscriber itself is the same for every subscriber of a bus
+            invoked.listenerClass = subscriber instanceof SubscriberImpl
+                    ? ((SubscriberImpl<?>) subscriber).listenerClass()
+                    : subscriber.getClass();
+            invoked.subscriber = String.valueOf(subscriber);
+            if (subscriber instanceof OwnedSubscriber) {
+                invoked.owner = String.valueOf(((OwnedSubscriber<?, ?>) subscriber).owner());
+            }
+            invoked.eventClass = eventClass;
+            invoked.threw = threw;
+            invoked.commit();
+        }
+    }
+
+    public static @Nullable Object beginTableBuild() {
+        if (!REBUILT.isEnabled()) {
+            return null;
+        }
+        DispatchTableRebuilt recording = new DispatchTableRebuilt();
+        recording.begin();
+        return recording;
+    }
+
+    public static void endTableBuild(@Nullable Object recording, @NonNull Class<?> eventClass, int ancestorCount) {
+        if (recording == null) {
+            return;
+        }
+        DispatchTableRebuilt rebuilt = (DispatchTableRebuilt) recording;
+        rebuilt.end();
+        if (rebuilt.shouldCommit()) {
+            rebuilt.eventClass = eventClass;
+            rebuilt.ancestorCount = ancestorCount;
+            rebuilt.commit();
+        }
+    }
+
+    @Name("org.geysermc.event.EventFired")
+    @Label("Event Fired")
+    @Description("An event was fired on an event bus")
+    @Category({"GeyserMC", "Event Bus"})
+    @Threshold("1 ms")
+    static final class EventFired extends Event {
+        @Label("Event Class")
+        Class<?> eventClass;
+
+        @Label("Subscriber Count")
+        int subscriberCount;
+    }
+
+    @Name("org.geysermc.event.SubscriberInvoked")
+    @Label("Subscriber Invoked")
+    @Description("A subscriber handled an event")
+    @Category({"GeyserMC", "Event Bus"})
+    @Threshold("1 ms")
+    static final class SubscriberInvoked extends Event {
+        @Label("Listener Class")
+        Class<?> listenerClass;
+
+        @Label("Subscriber")
+        String subscriber;
+
+        @Label("Owner")
+        String owner;
+
+        @Label("Event Class")
+        Class<?> eventClass;
+
+        @Label("Threw")
+        boolean threw;
+    }
+
+    @Name("org.geysermc.event.DispatchTableRebuilt")
+    @Label("Dispatch Table Rebuilt")
+    @Description("The subscribers of an event class were resolved and sorted")
+    @Category({"GeyserMC", "Event Bus"})
+    @Threshold("0 ms")
+    static final class DispatchTableRebuilt extends Event {
+        @Label("Event Class")
+        Class<?> eventClass;
+
+        @Label("Ancestor Count")
+        int ancestorCount;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import java.util.function.Predicate;
+import org.geysermc.event.PostOrder;
+import org.geysermc.event.bus.EventBusTest.IndexedListener;
+import org.geysermc.event.bus.EventBusTest.TestEvent;
+import org.geysermc.event.subscribe.SubscriberIndex;
+
+/**
+ * A hand-written index, to make sure that the index is used instead of reflection when it's present.
+ */
+public final class EventBusTest$IndexedListener_SubscriberIndex implements SubscriberIndex<IndexedListener> {
+    @Override
+    public void collect(SubscriberIndex.Collector<IndexedListener> collector) {
+        collector.accept(
+                TestEvent.class,
+                SubscriberIndex.subscribe(PostOrder.NORMAL, false, Predicate.class, false),
+                (listener, event) -> listener.indexCalls++);
+    }
+}
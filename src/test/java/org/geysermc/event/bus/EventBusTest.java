@@ -27,21 +27,58 @@ package org.geysermc.event.bus;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
-
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.event.AsyncEvent;
 import org.geysermc.event.Cancellable;
 import org.geysermc.event.Event;
 import org.geysermc.event.FireResult;
 import org.geysermc.event.PostOrder;
+import org.geysermc.event.bus.impl.BusOptions;
 import org.geysermc.event.bus.impl.EventBusImpl;
+import org.geysermc.event.bus.impl.OwnedEventBusImpl;
+import org.geysermc.event.bus.impl.WaitStrategy;
+import org.geysermc.event.bus.impl.metrics.BusMetrics;
+import org.geysermc.event.bus.impl.metrics.MetricsSnapshot;
+import org.geysermc.event.bus.impl.metrics.RecordingBusMetrics;
+import org.geysermc.event.bus.impl.watchdog.SlowInvocation;
+import org.geysermc.event.bus.impl.watchdog.SubscriberWatchdog;
+import org.geysermc.event.subscribe.OwnedSubscriber;
 import org.geysermc.event.subscribe.Subscribe;
 import org.geysermc.event.subscribe.Subscriber;
+import org.geysermc.event.subscribe.impl.OwnedSubscriberImpl;
 import org.geysermc.event.subscribe.impl.SubscriberImpl;
 import org.geysermc.event.util.AbstractCancellable;
 import org.geysermc.event.util.TriConsumer;
@@ -78,6 +115,191 @@ public class EventBusTest {
         assertTrue(bus.subscribers(TestEvent.class).isEmpty());
     }
 
+    @Test
+    public void unsubscribedSubscriberIsNotCalled() {
+        CountConsumer<TestEvent> handler = new CountConsumer<>();
+        TestSubscriberImpl<TestEvent> subscription = bus.subscribe(TestEvent.class, handler);
+
+        bus.fire(new TestEvent());
+        assertEquals(1, handler.invokeCalls);
+
+        bus.unsubscribe(subscription);
+        bus.fire(new TestEvent());
+        assertEquals(1, handler.invokeCalls);
+    }
+
+    @Test
+    public void subscribeToParentAfterChildWasFired() {
+        CountConsumer<TestEvent> handler = new CountConsumer<>();
+        bus.fire(new TestChildEvent());
+
+        bus.subscribe(TestEvent.class, handler);
+        bus.fire(new TestChildEvent());
+        assertEquals(1, handler.invokeCalls);
+    }
+
+    @Test
+    public void fireAllCallsSubscribersOfEveryEvent() {
+        CountConsumer<TestEvent> parentHandler = new CountConsumer<>();
+        CountConsumer<TestChildEvent> childHandler = new CountConsumer<>();
+        bus.subscribe(TestEvent.class, parentHandler);
+        bus.subscribe(TestChildEvent.class, childHandler);
+
+        List<TestEvent> events = Arrays.asList(new TestEvent(), new TestChildEvent(), new TestChildEvent());
+        assertTrue(bus.fireAll(events).success());
+        assertEquals(3, parentHandler.invokeCalls);
+        assertEquals(2, childHandler.invokeCalls);
+
+        assertTrue(bus.fireAllSilently(events, true).success());
+        assertEquals(6, parentHandler.invokeCalls);
+        assertEquals(4, childHandler.invokeCalls);
+    }
+
+    @Test
+    public void fireAllSubscriberMajor() {
+        List<String> calls = new ArrayList<>();
+        bus.subscribe(TestEvent.class, event -> calls.add("first"), PostOrder.FIRST);
+        bus.subscribe(TestEvent.class, event -> calls.add("last"), PostOrder.LAST);
+
+        List<TestEvent> events = Arrays.asList(new TestEvent(), new TestEvent());
+        bus.fireAllSilently(events, false);
+        assertEquals(Arrays.asList("first", "last", "first", "last"), calls);
+
+        calls.clear();
+        bus.fireAllSilently(events, true);
+        assertEquals(Arrays.asList("first", "first", "last", "last"), calls);
+    }
+
+    @Test
+    public void fireAllAggregatesExceptions() {
+        TestSubscriberImpl<TestEvent> subscriber = bus.subscribe(TestEvent.class, event -> {
+            throw new IllegalStateException();
+        });
+
+        for (boolean subscriberMajor : new boolean[] {false, true}) {
+            FireResult result = bus.fireAllSilently(
+                    Arrays.asList(new TestEvent(), new TestEvent(), new TestEvent()), subscriberMajor);
+
+            assertEquals(1, result.exceptions().size());
+            Throwable first = result.exceptions().get(subscriber);
+            assertTrue(first instanceof IllegalStateException);
+            assertEquals(2, first.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void batchAppliesChangesAtTheEnd() {
+        CountConsumer<TestEvent> removedHandler = new CountConsumer<>();
+        CountConsumer<TestEvent> addedHandler = new CountConsumer<>();
+        TestSubscriberImpl<TestEvent> removed = bus.subscribe(TestEvent.class, removedHandler);
+        bus.fire(new TestChildEvent());
+        assertEquals(1, removedHandler.invokeCalls);
+
+        bus.batch(() -> {
+            bus.subscribe(TestEvent.class, addedHandler);
+            bus.unsubscribe(removed);
+
+            bus.fire(new TestChildEvent());
+            assertEquals(2, removedHandler.invokeCalls);
+            assertEquals(0, addedHandler.invokeCalls);
+        });
+
+        bus.fire(new TestChildEvent());
+        assertEquals(2, removedHandler.invokeCalls);
+        assertEquals(1, addedHandler.invokeCalls);
+    }
+
+    @Test
+    public void batchResubscribe() {
+        CountConsumer<TestEvent> handler = new CountConsumer<>();
+        TestSubscriberImpl<TestEvent> subscriber = bus.subscribe(TestEvent.class, handler);
+
+        bus.batch(() -> {
+            bus.unsubscribe(subscriber);
+            bus.register(TestEvent.class, subscriber);
+        });
+        bus.fire(new TestEvent());
+        assertEquals(1, handler.invokeCalls);
+
+        bus.batch(() -> {
+            bus.register(TestEvent.class, subscriber);
+            bus.unsubscribe(subscriber);
+        });
+        bus.fire(new TestEvent());
+        assertEquals(1, handler.invokeCalls);
+    }
+
+    @Test
+    public void registerAllListeners() {
+        TestEventListener first = new TestEventListener();
+        TestEventListener second = new TestEventListener();
+
+        bus.registerAll(first, second);
+        assertEquals(8, bus.createdMethodSubscriptions);
+
+        bus.fire(new TestChildEvent());
+        assertEquals(1, first.childEventInvokeCount);
+        assertEquals(1, second.childEventInvokeCount);
+    }
+
+    @Test
+    public void patchedSubscribersKeepOrder() {
+        List<String> calls = new ArrayList<>();
+        bus.subscribe(TestChildEvent.class, event -> calls.add("child"));
+        bus.subscribe(TestEvent.class, event -> calls.add("late"), PostOrder.LATE);
+        bus.fire(new TestChildEvent());
+
+        // the subscribers of a parent event come before those of the child, also when added after the first fire
+        TestSubscriberImpl<TestEvent> parent = bus.subscribe(TestEvent.class, event -> calls.add("parent"));
+        bus.subscribe(TestEvent.class, event -> calls.add("early"), PostOrder.EARLY);
+        calls.clear();
+        bus.fire(new TestChildEvent());
+        assertEquals(Arrays.asList("early", "parent", "child", "late"), calls);
+
+        bus.unsubscribe(parent);
+        calls.clear();
+        bus.fire(new TestChildEvent());
+        assertEquals(Arrays.asList("early", "child", "late"), calls);
+    }
+
+    @Test
+    public void registerSameSubscriberTwice() {
+        CountConsumer<TestEvent> handler = new CountConsumer<>();
+        TestSubscriberImpl<TestEvent> subscriber = bus.subscribe(TestEvent.class, handler);
+        bus.fire(new TestEvent());
+
+        bus.register(TestEvent.class, subscriber);
+        bus.fire(new TestEvent());
+        assertEquals(2, handler.invokeCalls);
+    }
+
+    @Test
+    public void concurrentSubscribe() throws InterruptedException {
+        int threadCount = 8;
+        int subscriptionsPerThread = 500;
+        AtomicInteger invokeCalls = new AtomicInteger();
+
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < subscriptionsPerThread; j++) {
+                    bus.subscribe(TestEvent.class, event -> invokeCalls.incrementAndGet());
+                    // fire while others are subscribing
+                    bus.fireSilently(new TestChildEvent());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * subscriptionsPerThread, bus.subscribers(TestEvent.class).size());
+        invokeCalls.set(0);
+        bus.fire(new TestChildEvent());
+        assertEquals(threadCount * subscriptionsPerThread, invokeCalls.get());
+    }
+
     @Test
     public void callNormalEvent() {
         CountConsumer<TestEvent> handler = new CountConsumer<>();
@@ -134,6 +356,793 @@ public class EventBusTest {
         assertEquals(1, result.exceptions().size());
     }
 
+    @Test
+    public void successfulFireDoesNotAllocate() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        CountConsumer<TestEvent> handler = new CountConsumer<>();
+        bus.subscribe(TestEvent.class, handler, PostOrder.EARLY);
+        bus.subscribe(TestEvent.class, handler);
+        bus.subscribe(Object.class, event -> {}, PostOrder.LAST);
+
+        TestEvent event = new TestEvent();
+        long threadId = Thread.currentThread().getId();
+        int iterations = 100_000;
+
+        // warm up, resolving the subscribers is allowed to allocate
+        for (int i = 0; i < iterations; i++) {
+            bus.fireSilently(event);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            bus.fireSilently(event);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(4L * iterations, handler.invokeCalls);
+        // the bean itself may allocate a few bytes while reading the counter
+        assertEquals(0, allocated / iterations);
+    }
+
+    @Test
+    public void successfulKeyedFireDoesNotAllocate() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        CountConsumer<TestKeyedEvent> handler = new CountConsumer<>();
+        bus.subscribe(TestKeyedEvent.class, handler);
+        bus.subscribe(TestKeyedEvent.class, event -> event.key, "a", handler);
+        bus.subscribe(TestKeyedEvent.class, event -> event.key, "b", handler);
+        bus.subscribe(TestKeyedEvent.class, event -> event.key.length() == 1, handler, PostOrder.LAST);
+
+        TestKeyedEvent event = new TestKeyedEvent("a");
+        long threadId = Thread.currentThread().getId();
+        int iterations = 100_000;
+
+        // warm up, resolving the subscribers is allowed to allocate
+        for (int i = 0; i < iterations; i++) {
+            bus.fireSilently(event);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            bus.fireSilently(event);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(6L * iterations, handler.invokeCalls);
+        // the bean itself may allocate a few bytes while reading the counter
+        assertEquals(0, allocated / iterations);
+    }
+
+    @Test
+    public void rejectedKeyedRegistrationIsNotRecorded() {
+        CountConsumer<TestEvent> handler = new CountConsumer<>();
+        TestSubscriberImpl<TestEvent> subscriber = new TestSubscriberImpl<>(TestEvent.class, handler, PostOrder.NORMAL);
+        Function<Object, Object> keyExtractor = event -> "b";
+
+        // the subscriber doesn't handle the parent class
+        assertThrows(IllegalArgumentException.class, () -> bus.register(Object.class, subscriber, keyExtractor, "a"));
+        // this registration isn't keyed, so it's called even though the key extractor doesn't match
+        bus.register(TestEvent.class, subscriber);
+
+        bus.fire(new TestEvent());
+        assertEquals(1, handler.invokeCalls);
+        assertEquals(1, bus.subscribers(TestEvent.class).size());
+    }
+
+    @Test
+    public void fireAsyncOnExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            bus = new TestBusImpl(BusOptions.builder().asyncExecutor(executor).build());
+
+            AtomicReference<Thread> handlerThread = new AtomicReference<>();
+            bus.subscribe(TestEvent.class, event -> handlerThread.set(Thread.currentThread()));
+            TestEventListenerOrder orderListener = new TestEventListenerOrder();
+            bus.register(orderListener);
+            TestCancelledEventListener cancelledListener = new TestCancelledEventListener();
+            bus.register(cancelledListener);
+
+            FireResult result = bus.fireAsync(new TestEvent()).join();
+            assertTrue(result.success());
+            assertNotSame(Thread.currentThread(), handlerThread.get());
+            assertEquals(PostOrder.LAST, orderListener.lastCalled);
+
+            TestCancellableEvent event = new TestCancellableEvent();
+            assertTrue(bus.fireAsync(event).join().success());
+            assertTrue(event.isCancelled());
+            assertEquals(3, cancelledListener.callCount);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void patchedTablesOrderByRegisteredClass() {
+        List<String> calls = new ArrayList<>();
+        // handles every TestEvent, but is registered for the child class only
+        bus.register(
+                TestChildEvent.class,
+                new TestSubscriberImpl<>(TestEvent.class, event -> calls.add("child"), PostOrder.NORMAL));
+        // loads the table, so the next subscription patches it
+        bus.fire(new TestChildEvent());
+
+        bus.subscribe(TestEvent.class, event -> calls.add("parent"));
+        calls.clear();
+        bus.fire(new TestChildEvent());
+        // the subscribers of the parent class come first, like in a table that is created from scratch
+        assertEquals(Arrays.asList("parent", "child"), calls);
+    }
+
+    @Test
+    public void patchedKeyedRoutesOrderLikeCreatedRoutes() {
+        List<String> patchedCalls = new ArrayList<>();
+        // loads the table, so the subscriptions patch it
+        bus.fire(new TestKeyedEvent("a"));
+        TestSubscriberImpl<TestKeyedEvent> patchedFirst = subscribeKeyedInMixedOrder(bus, patchedCalls);
+
+        TestBusImpl createdBus = new TestBusImpl();
+        List<String> createdCalls = new ArrayList<>();
+        TestSubscriberImpl<TestKeyedEvent> createdFirst = subscribeKeyedInMixedOrder(createdBus, createdCalls);
+
+        bus.fire(new TestKeyedEvent("a"));
+        createdBus.fire(new TestKeyedEvent("a"));
+        // the group of b comes first in NORMAL, because its first subscriber is FIRST
+        assertEquals(Arrays.asList("b first", "a early", "b normal", "a normal"), patchedCalls);
+        assertEquals(createdCalls, patchedCalls);
+
+        // the group of b moves after the group of a, whose first subscriber is EARLY
+        patchedCalls.clear();
+        createdCalls.clear();
+        bus.unsubscribe(patchedFirst);
+        createdBus.unsubscribe(createdFirst);
+        bus.fire(new TestKeyedEvent("a"));
+        createdBus.fire(new TestKeyedEvent("a"));
+        assertEquals(Arrays.asList("a early", "a normal", "b normal"), patchedCalls);
+        assertEquals(createdCalls, patchedCalls);
+    }
+
+    private static TestSubscriberImpl<TestKeyedEvent> subscribeKeyedInMixedOrder(TestBusImpl bus, List<String> calls) {
+        Function<TestKeyedEvent, String> a = event -> event.key;
+        Function<TestKeyedEvent, String> b = event -> event.key;
+        bus.subscribe(TestKeyedEvent.class, b, "a", event -> calls.add("b normal"));
+        bus.subscribe(TestKeyedEvent.class, a, "a", event -> calls.add("a early"), PostOrder.EARLY);
+        TestSubscriberImpl<TestKeyedEvent> first =
+                bus.subscribe(TestKeyedEvent.class, b, "a", event -> calls.add("b first"), PostOrder.FIRST);
+        bus.subscribe(TestKeyedEvent.class, a, "a", event -> calls.add("a normal"));
+        return first;
+    }
+
+    @Test
+    public void patchedOffThreadSubscriberCanBeUnsubscribed() {
+        bus = new TestBusImpl(BusOptions.builder().offThreadExecutor(Runnable::run).build());
+        AtomicInteger calls = new AtomicInteger();
+        bus.fire(new TestEvent());
+
+        TestSubscriberImpl<TestEvent> subscriber =
+                bus.subscribe(TestEvent.class, event -> calls.incrementAndGet(), PostOrder.NORMAL, true);
+        bus.fire(new TestEvent());
+        bus.unsubscribe(subscriber);
+        bus.fire(new TestEvent());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void generatedDispatchers() {
+        bus = new TestBusImpl(BusOptions.builder().generatedDispatchers(true).build());
+
+        TestEventListenerOrder orderListener = new TestEventListenerOrder();
+        bus.register(orderListener);
+        TestCancelledEventListener cancelledListener = new TestCancelledEventListener();
+        bus.register(cancelledListener);
+        TestSubscriberImpl<TestChildEvent> throwing = bus.subscribe(TestChildEvent.class, event -> {
+            throw new IllegalStateException();
+        });
+        AtomicBoolean generated = new AtomicBoolean();
+        bus.subscribe(TestEvent.class, event -> generated.set(calledByGeneratedDispatcher()));
+
+        // a dispatcher is only generated once its table has been fired often enough, until then the loop is used
+        for (int i = 0; i < 2_000; i++) {
+            orderListener.lastCalled = null;
+            assertTrue(bus.fire(new TestEvent()).success());
+            assertEquals(PostOrder.LAST, orderListener.lastCalled);
+            if (i == 0) {
+                assertFalse(generated.get());
+            }
+
+            cancelledListener.callCount = 0;
+            TestCancellableEvent event = new TestCancellableEvent();
+            assertTrue(bus.fire(event).success());
+            assertTrue(event.isCancelled());
+            assertEquals(3, cancelledListener.callCount);
+
+            orderListener.lastCalled = null;
+            FireResult result = bus.fireSilently(new TestChildEvent());
+            assertEquals(PostOrder.LAST, orderListener.lastCalled);
+            assertEquals(1, result.exceptions().size());
+        }
+        assertTrue(generated.get());
+
+        // like the loop, the first exception of a subscriber is kept and the later ones are suppressed
+        FireResult result = bus.fireAllSilently(Arrays.asList(new TestChildEvent(), new TestChildEvent()));
+        assertEquals(1, result.exceptions().get(throwing).getSuppressed().length);
+    }
+
+    private static boolean calledByGeneratedDispatcher() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (element.getClassName().equals("org.geysermc.event.bus.impl.DispatcherGenerator")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void keyedSubscribersOnlyReceiveTheirKey() {
+        List<String> calls = new ArrayList<>();
+        Function<TestKeyedEvent, String> keyExtractor = event -> event.key;
+        bus.subscribe(TestKeyedEvent.class, event -> calls.add("unkeyed"));
+        bus.subscribe(TestKeyedEvent.class, keyExtractor, "a", event -> calls.add("a"), PostOrder.FIRST);
+        TestSubscriberImpl<TestKeyedEvent> b =
+                bus.subscribe(TestKeyedEvent.class, keyExtractor, "b", event -> calls.add("b"));
+        bus.subscribe(TestKeyedEvent.class, event -> event.key.length(), 1, event -> calls.add("length"));
+
+        assertEquals(4, bus.subscribers(TestKeyedEvent.class).size());
+
+        bus.fire(new TestKeyedEvent("a"));
+        assertEquals(Arrays.asList("a", "unkeyed", "length"), calls);
+
+        calls.clear();
+        bus.fire(new TestKeyedEvent("b"));
+        assertEquals(Arrays.asList("unkeyed", "b", "length"), calls);
+
+        calls.clear();
+        bus.fire(new TestKeyedEvent("cc"));
+        assertEquals(Collections.singletonList("unkeyed"), calls);
+
+        calls.clear();
+        bus.unsubscribe(b);
+        bus.fireAllSilently(Arrays.asList(new TestKeyedEvent("b"), new TestKeyedEvent("a")), true);
+        assertEquals(Arrays.asList("unkeyed", "length", "a", "unkeyed", "length"), calls);
+    }
+
+    @Test
+    public void throwingKeyExtractorOnlySkipsItsGroup() {
+        List<String> calls = new ArrayList<>();
+        Function<TestKeyedEvent, Integer> keyLength = event -> event.key.length();
+        TestSubscriberImpl<TestKeyedEvent> first =
+                bus.subscribe(TestKeyedEvent.class, keyLength, 1, event -> calls.add("first"));
+        TestSubscriberImpl<TestKeyedEvent> second =
+                bus.subscribe(TestKeyedEvent.class, keyLength, 2, event -> calls.add("second"));
+        bus.subscribe(TestKeyedEvent.class, event -> event.sequence, 0, event -> calls.add("sequence"));
+        bus.subscribe(TestKeyedEvent.class, event -> calls.add("unkeyed"));
+
+        FireResult result = bus.fireSilently(new TestKeyedEvent(null));
+        assertEquals(Arrays.asList("unkeyed", "sequence"), calls);
+        assertFalse(result.success());
+        assertEquals(2, result.exceptions().size());
+        assertTrue(result.exceptions().get(first) instanceof NullPointerException);
+        assertSame(result.exceptions().get(first), result.exceptions().get(second));
+
+        calls.clear();
+        assertTrue(bus.fire(new TestKeyedEvent("a")).success());
+        assertEquals(Arrays.asList("unkeyed", "first", "sequence"), calls);
+    }
+
+    @Test
+    public void filteredSubscribersShareTheirFilter() {
+        List<String> calls = new ArrayList<>();
+        AtomicInteger tests = new AtomicInteger();
+        Predicate<TestKeyedEvent> isA = event -> {
+            tests.incrementAndGet();
+            return event.key.equals("a");
+        };
+        bus.subscribe(TestKeyedEvent.class, isA, event -> calls.add("a"));
+        bus.subscribe(TestKeyedEvent.class, isA, event -> calls.add("late a"), PostOrder.LATE);
+        bus.subscribe(TestKeyedEvent.class, event -> calls.add("unfiltered"));
+
+        bus.fire(new TestKeyedEvent("a"));
+        assertEquals(Arrays.asList("unfiltered", "a", "late a"), calls);
+        assertEquals(1, tests.get());
+
+        calls.clear();
+        bus.fire(new TestKeyedEvent("b"));
+        assertEquals(Collections.singletonList("unfiltered"), calls);
+        assertEquals(2, tests.get());
+    }
+
+    @Test
+    public void subscribeAnnotationFilter() {
+        FilteredListener listener = new FilteredListener();
+        ShortKeyFilter.tests = 0;
+        bus.register(listener);
+
+        bus.fire(new TestKeyedEvent("a"));
+        bus.fire(new TestKeyedEvent("bb"));
+        assertEquals(Arrays.asList("first", "second"), listener.calls);
+        assertEquals(2, ShortKeyFilter.tests);
+    }
+
+    @Test
+    public void throwingFilterIsReportedForItsSubscribers() {
+        List<String> calls = new ArrayList<>();
+        FilteredListener listener = new FilteredListener();
+        bus.register(listener);
+        bus.subscribe(TestKeyedEvent.class, event -> event.key.isEmpty(), event -> calls.add("empty"));
+        bus.subscribe(TestKeyedEvent.class, event -> calls.add("unfiltered"));
+
+        // both filters throw on the missing key
+        FireResult result = bus.fireSilently(new TestKeyedEvent(null));
+        assertEquals(Collections.singletonList("unfiltered"), calls);
+        assertTrue(listener.calls.isEmpty());
+        assertFalse(result.success());
+        assertEquals(3, result.exceptions().size());
+        result.exceptions().values().forEach(throwable -> assertTrue(throwable instanceof NullPointerException));
+
+        calls.clear();
+        assertTrue(bus.fire(new TestKeyedEvent("a")).success());
+        assertEquals(Collections.singletonList("unfiltered"), calls);
+        assertEquals(Arrays.asList("first", "second"), listener.calls);
+    }
+
+    @Test
+    public void orderedAsyncFiresKeepTheOrderOfEveryKey() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TestBusImpl orderedBus = new TestBusImpl(BusOptions.builder()
+                    .asyncExecutor(executor)
+                    .orderAsyncBy(TestKeyedEvent.class, event -> event.key)
+                    .build());
+
+            // the first event of a only finishes after an event of b, so different keys have to run concurrently
+            CountDownLatch bFired = new CountDownLatch(1);
+            Map<String, List<Integer>> sequences = new ConcurrentHashMap<>();
+            orderedBus.subscribe(TestKeyedEvent.class, event -> {
+                if (event.key.equals("a") && event.sequence == 0) {
+                    assertDoesNotThrow(() -> assertTrue(bFired.await(5, TimeUnit.SECONDS)));
+                } else if (event.key.equals("b")) {
+                    bFired.countDown();
+                }
+                sequences.computeIfAbsent(event.key, key -> new ArrayList<>()).add(event.sequence);
+            });
+
+            List<CompletableFuture<FireResult>> results = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(orderedBus.fireAsync(new TestKeyedEvent("a", i)));
+                results.add(orderedBus.fireAsync(new TestKeyedEvent("b", i)));
+                expected.add(i);
+            }
+
+            for (CompletableFuture<FireResult> result : results) {
+                assertTrue(result.join().success());
+            }
+            assertEquals(expected, sequences.get("a"));
+            assertEquals(expected, sequences.get("b"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void parallelTiersCallSubscribersConcurrently() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TestBusImpl parallelBus = new TestBusImpl(BusOptions.builder().parallelTiers(pool).build());
+
+            // every NORMAL subscriber waits for the others, which only works when they're called concurrently
+            CountDownLatch allStarted = new CountDownLatch(3);
+            AtomicInteger finished = new AtomicInteger();
+            for (int i = 0; i < 3; i++) {
+                parallelBus.subscribe(TestAsyncEvent.class, event -> {
+                    allStarted.countDown();
+                    assertDoesNotThrow(() -> assertTrue(allStarted.await(5, TimeUnit.SECONDS)));
+                    finished.incrementAndGet();
+                });
+            }
+            AtomicInteger finishedBeforeLate = new AtomicInteger(-1);
+            parallelBus.subscribe(
+                    TestAsyncEvent.class, event -> finishedBeforeLate.set(finished.get()), PostOrder.LATE);
+            TestSubscriberImpl<TestAsyncEvent> failing = parallelBus.subscribe(TestAsyncEvent.class, event -> {
+                throw new IllegalStateException();
+            });
+
+            FireResult result = parallelBus.fireSilently(new TestAsyncEvent());
+            assertEquals(Collections.singleton(failing), result.exceptions().keySet());
+            assertEquals(3, finishedBeforeLate.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void offThreadSubscribersDontDelayTheFire() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TestBusImpl offThreadBus = new TestBusImpl(BusOptions.builder().offThreadExecutor(executor).build());
+
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch called = new CountDownLatch(2);
+            Thread firingThread = Thread.currentThread();
+            offThreadBus.subscribe(
+                    TestEvent.class,
+                    event -> {
+                        assertDoesNotThrow(() -> release.await());
+                        called.countDown();
+                    },
+                    PostOrder.NORMAL,
+                    true);
+            OffThreadListener listener = new OffThreadListener(called);
+            offThreadBus.register(listener);
+
+            // the fire returns while the first off-thread subscriber is still blocked, and the executor has a single
+            // thread, so the listener runs after it
+            assertTrue(offThreadBus.fire(new TestEvent()).success());
+            assertEquals(2, called.getCount());
+
+            release.countDown();
+            assertTrue(called.await(5, TimeUnit.SECONDS));
+            assertNotSame(firingThread, listener.thread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void flushFiresCoalescedDeferredEvents() {
+        TestBusImpl deferringBus = new TestBusImpl(BusOptions.builder()
+                .coalesceBy(TestKeyedEvent.class, event -> event.key)
+                .build());
+
+        List<String> calls = new ArrayList<>();
+        deferringBus.subscribe(TestEvent.class, event -> calls.add("plain"));
+        deferringBus.subscribe(TestKeyedEvent.class, event -> {
+            calls.add(event.key + event.sequence);
+            // deferred while flushing, so it's part of the next flush
+            deferringBus.fireLater(new TestKeyedEvent("c", event.sequence));
+        });
+
+        deferringBus.fireLater(new TestKeyedEvent("a", 1));
+        deferringBus.fireLater(new TestKeyedEvent("b", 1));
+        deferringBus.fireLater(new TestEvent());
+        deferringBus.fireLater(new TestKeyedEvent("a", 2));
+        assertTrue(calls.isEmpty());
+
+        assertTrue(deferringBus.flush().success());
+        assertEquals(Arrays.asList("a2", "b1", "plain"), calls);
+
+        calls.clear();
+        deferringBus.flush();
+        assertEquals(Collections.singletonList("c1"), calls);
+    }
+
+    @Test
+    public void ownedRegistrationCanRegisterForTheSameOwner() {
+        AtomicReference<TestOwnedBusImpl> ownedBus = new AtomicReference<>();
+        AtomicBoolean nested = new AtomicBoolean();
+        AtomicInteger fired = new AtomicInteger();
+        BusMetrics subscribing = new BusMetrics() {
+            @Override
+            public void record(
+                    @NonNull Subscriber<?> subscriber,
+                    @NonNull Class<?> eventClass,
+                    long durationNanos,
+                    @Nullable Throwable failure) {}
+
+            @Override
+            public void subscribed(@NonNull Subscriber<?> subscriber) {
+                if (nested.compareAndSet(false, true)) {
+                    ownedBus.get().subscribe("owner", TestEvent.class, event -> fired.incrementAndGet());
+                }
+            }
+        };
+        ownedBus.set(new TestOwnedBusImpl(BusOptions.builder().metrics(subscribing).build()));
+
+        ownedBus.get().subscribe("owner", TestEvent.class, event -> fired.incrementAndGet());
+        ownedBus.get().fire(new TestEvent());
+        assertEquals(2, fired.get());
+
+        ownedBus.get().unregisterAll("owner");
+        ownedBus.get().fire(new TestEvent());
+        assertEquals(2, fired.get());
+    }
+
+    @Test
+    public void registeringAgainDoesntReportSubscribedAgain() {
+        List<Subscriber<?>> subscribed = new ArrayList<>();
+        BusMetrics counting = new BusMetrics() {
+            @Override
+            public void record(
+                    @NonNull Subscriber<?> subscriber,
+                    @NonNull Class<?> eventClass,
+                    long durationNanos,
+                    @Nullable Throwable failure) {}
+
+            @Override
+            public void subscribed(@NonNull Subscriber<?> subscriber) {
+                subscribed.add(subscriber);
+            }
+        };
+        bus = new TestBusImpl(BusOptions.builder().metrics(counting).build());
+
+        TestSubscriberImpl<TestEvent> subscriber = bus.subscribe(TestEvent.class, event -> {});
+        assertEquals(Collections.singletonList(subscriber), subscribed);
+
+        bus.register(TestEvent.class, subscriber);
+        bus.batch(() -> bus.register(TestEvent.class, subscriber));
+        assertEquals(Collections.singletonList(subscriber), subscribed);
+
+        bus.unsubscribe(subscriber);
+        bus.batch(() -> bus.register(TestEvent.class, subscriber));
+        assertEquals(Arrays.asList(subscriber, subscriber), subscribed);
+    }
+
+    @Test
+    public void unregisterAllDoesntMissConcurrentSubscriptions() throws InterruptedException {
+        TestOwnedBusImpl ownedBus = new TestOwnedBusImpl();
+        AtomicInteger fired = new AtomicInteger();
+
+        Thread subscribing = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                ownedBus.subscribe("owner", TestEvent.class, event -> fired.incrementAndGet());
+            }
+        });
+        subscribing.start();
+        while (subscribing.isAlive()) {
+            ownedBus.unregisterAll("owner");
+        }
+        ownedBus.unregisterAll("owner");
+
+        // every subscription was either removed by the loop or by the last call
+        assertTrue(ownedBus.subscribers(TestEvent.class).isEmpty());
+        ownedBus.fire(new TestEvent());
+        assertEquals(0, fired.get());
+    }
+
+    @Test
+    public void concurrentFlushesFireEveryDeferredEventOnce() throws InterruptedException {
+        TestBusImpl deferringBus = new TestBusImpl();
+        AtomicInteger fired = new AtomicInteger();
+        deferringBus.subscribe(TestEvent.class, event -> fired.incrementAndGet());
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 10_000; j++) {
+                        deferringBus.fireLater(new TestEvent());
+                        if (j % 2 == 0) {
+                            assertTrue(deferringBus.flush().success());
+                        }
+                    }
+                } catch (Throwable throwable) {
+                    failure.compareAndSet(null, throwable);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(deferringBus.flush().success());
+
+        assertNull(failure.get());
+        assertEquals(40_000, fired.get());
+    }
+
+    @Test
+    public void queuedFiresAreFiredByTheConsumers() throws InterruptedException {
+        // smaller than the amount of fires, so producers have to wait for the consumer to free slots
+        TestBusImpl queuedBus = new TestBusImpl(BusOptions.builder().queued(64, 1, WaitStrategy.PARK).build());
+
+        List<Integer> sequences = new ArrayList<>();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        queuedBus.subscribe(TestKeyedEvent.class, event -> {
+            sequences.add(event.sequence);
+            threads.add(Thread.currentThread());
+        });
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(queuedBus.fire(new TestKeyedEvent("a", i)).success());
+        }
+        queuedBus.shutdown();
+
+        // a single consumer fires them in order
+        assertEquals(1000, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i, (int) sequences.get(i));
+        }
+        assertEquals(1, threads.size());
+        assertFalse(threads.contains(Thread.currentThread()));
+        assertThrows(IllegalStateException.class, () -> queuedBus.fire(new TestKeyedEvent("a", 0)));
+    }
+
+    @Test
+    public void shutdownHandlesEveryAcceptedFire() throws InterruptedException {
+        TestBusImpl queuedBus = new TestBusImpl(BusOptions.builder().queued(16, 2, WaitStrategy.PARK).build());
+        AtomicInteger fired = new AtomicInteger();
+        queuedBus.subscribe(TestEvent.class, event -> fired.incrementAndGet());
+
+        AtomicInteger accepted = new AtomicInteger();
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                try {
+                    while (true) {
+                        queuedBus.fire(new TestEvent());
+                        accepted.incrementAndGet();
+                    }
+                } catch (IllegalStateException ignored) {
+                    // shut down
+                }
+            });
+            producers[i].start();
+        }
+        while (accepted.get() < 1000) {
+            Thread.yield();
+        }
+        queuedBus.shutdown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(accepted.get(), fired.get());
+    }
+
+    @Test
+    public void queuedFiresFromManyProducersReachEveryConsumer() throws InterruptedException {
+        TestBusImpl queuedBus = new TestBusImpl(BusOptions.builder().queued(128, 3, WaitStrategy.YIELD).build());
+
+        AtomicInteger fired = new AtomicInteger();
+        queuedBus.subscribe(TestEvent.class, event -> fired.incrementAndGet());
+
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    queuedBus.fire(new TestEvent());
+                }
+            });
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        queuedBus.shutdown();
+
+        assertEquals(40_000, fired.get());
+    }
+
+    @Test
+    public void metricsRecordEveryInvocation() {
+        RecordingBusMetrics metrics = new RecordingBusMetrics();
+        bus = new TestBusImpl(BusOptions.builder().metrics(metrics).build());
+
+        TestSubscriberImpl<TestEvent> working = bus.subscribe(TestEvent.class, event -> {});
+        TestSubscriberImpl<TestChildEvent> failing = bus.subscribe(TestChildEvent.class, event -> {
+            throw new IllegalStateException();
+        });
+
+        bus.fireSilently(new TestEvent());
+        bus.fireSilently(new TestChildEvent());
+        bus.fireSilently(new TestChildEvent());
+
+        MetricsSnapshot workingMetrics = metrics.subscriberSnapshots().get(working);
+        assertEquals(3, workingMetrics.invocations());
+        assertEquals(0, workingMetrics.failures());
+        assertTrue(workingMetrics.percentileNanos(50) <= workingMetrics.maxNanos());
+
+        MetricsSnapshot failingMetrics = metrics.subscriberSnapshots().get(failing);
+        assertEquals(2, failingMetrics.invocations());
+        assertEquals(2, failingMetrics.failures());
+
+        assertEquals(1, metrics.eventClassSnapshots().get(TestEvent.class).invocations());
+        assertEquals(4, metrics.eventClassSnapshots().get(TestChildEvent.class).invocations());
+
+        bus.unsubscribe(failing);
+        assertNull(metrics.subscriberSnapshots().get(failing));
+    }
+
+    @Test
+    public void sampledMetricsCountEveryInvocation() {
+        RecordingBusMetrics metrics = new RecordingBusMetrics();
+        bus = new TestBusImpl(
+                BusOptions.builder().metrics(metrics).metricsSampleRate(4).build());
+
+        TestSubscriberImpl<TestEvent> subscriber = bus.subscribe(TestEvent.class, event -> {});
+        for (int i = 0; i < 8_000; i++) {
+            bus.fireSilently(new TestEvent());
+        }
+
+        // sampled at random, 2000 are expected
+        MetricsSnapshot snapshot = metrics.subscriberSnapshots().get(subscriber);
+        assertEquals(8_000, snapshot.invocations());
+        assertTrue(snapshot.timedInvocations() > 1_500 && snapshot.timedInvocations() < 2_500);
+        assertTrue(snapshot.estimatedTotalNanos() >= snapshot.totalNanos());
+    }
+
+    @Test
+    public void offThreadMetricsAreSampled() {
+        RecordingBusMetrics metrics = new RecordingBusMetrics();
+        bus = new TestBusImpl(BusOptions.builder()
+                .metrics(metrics)
+                .metricsSampleRate(Integer.MAX_VALUE)
+                .offThreadExecutor(Runnable::run)
+                .build());
+
+        TestSubscriberImpl<TestEvent> subscriber = bus.subscribe(TestEvent.class, event -> {}, PostOrder.NORMAL, true);
+        for (int i = 0; i < 100; i++) {
+            bus.fireSilently(new TestEvent());
+        }
+
+        MetricsSnapshot snapshot = metrics.subscriberSnapshots().get(subscriber);
+        assertEquals(100, snapshot.invocations());
+        assertEquals(0, snapshot.timedInvocations());
+    }
+
+    @Test
+    public void metricsAreCombinedPerOwner() {
+        RecordingBusMetrics metrics = new RecordingBusMetrics();
+        TestOwnedBusImpl ownedBus = new TestOwnedBusImpl(BusOptions.builder().metrics(metrics).build());
+
+        TestOwnedSubscriberImpl<TestEvent> first = ownedBus.subscribe("first", TestEvent.class, event -> {});
+        ownedBus.subscribe("first", TestChildEvent.class, event -> {
+            throw new IllegalStateException();
+        });
+        ownedBus.subscribe("second", TestEvent.class, event -> {});
+
+        ownedBus.fireSilently(new TestEvent());
+        ownedBus.fireSilently(new TestChildEvent());
+
+        MetricsSnapshot firstMetrics = metrics.ownerSnapshots().get("first");
+        assertEquals(3, firstMetrics.invocations());
+        assertEquals(1, firstMetrics.failures());
+        assertEquals(2, metrics.ownerSnapshots().get("second").invocations());
+
+        // an invocation that was still running when the subscriber got removed
+        ownedBus.unsubscribe(first);
+        metrics.record(first, TestEvent.class, 1, null);
+        assertNull(metrics.subscriberSnapshots().get(first));
+        assertEquals(4, metrics.ownerSnapshots().get("first").invocations());
+    }
+
+    @Test
+    public void watchdogReportsSlowSubscriber() throws InterruptedException {
+        AtomicReference<SlowInvocation> reported = new AtomicReference<>();
+        CountDownLatch reportedLatch = new CountDownLatch(1);
+        Consumer<SlowInvocation> reporter = invocation -> {
+            reported.set(invocation);
+            reportedLatch.countDown();
+        };
+
+        try (SubscriberWatchdog watchdog = new SubscriberWatchdog(Duration.ofMillis(10), reporter)) {
+            bus = new TestBusImpl(BusOptions.builder().watchdog(watchdog).build());
+
+            // blocks until the watchdog found it
+            TestSubscriberImpl<TestEvent> slow = bus.subscribe(TestEvent.class, event -> {
+                try {
+                    reportedLatch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            assertTrue(bus.fire(new TestEvent()).success());
+
+            SlowInvocation invocation = reported.get();
+            assertNotNull(invocation);
+            assertSame(slow, invocation.subscriber());
+            assertEquals(TestEvent.class, invocation.eventClass());
+            assertSame(Thread.currentThread(), invocation.thread());
+            assertTrue(invocation.elapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+            assertTrue(invocation.stackTrace().length > 0);
+        }
+    }
+
     @Test
     public void findSubscribersInListener() {
         TestEventListener listener = new TestEventListener();
@@ -145,6 +1154,22 @@ public class EventBusTest {
         assertEquals(4, methodsFound.get());
     }
 
+    @Test
+    public void findSubscribersReusesHandlersOfListenerClass() {
+        List<BiConsumer<Object, ?>> firstHandlers = new ArrayList<>();
+        List<BiConsumer<Object, ?>> secondHandlers = new ArrayList<>();
+
+        bus.findSubscriptions(
+                new TestEventListener(), (eventClass, subscribe, consumer) -> firstHandlers.add(consumer));
+        bus.findSubscriptions(
+                new TestEventListener(), (eventClass, subscribe, consumer) -> secondHandlers.add(consumer));
+
+        assertEquals(4, firstHandlers.size());
+        for (int i = 0; i < firstHandlers.size(); i++) {
+            assertSame(firstHandlers.get(i), secondHandlers.get(i));
+        }
+    }
+
     @Test
     public void registeredSubscribersCallCount() {
         TestEventListener listener = new TestEventListener();
@@ -173,6 +1198,18 @@ public class EventBusTest {
         assertEquals(0, listener.childEventInvokeCount);
     }
 
+    @Test
+    public void registerUsesSubscriberIndex() {
+        IndexedListener listener = new IndexedListener();
+
+        bus.register(listener);
+        assertEquals(1, bus.createdMethodSubscriptions);
+
+        bus.fire(new TestEvent());
+        assertEquals(1, listener.indexCalls);
+        assertEquals(0, listener.reflectionCalls);
+    }
+
     @Test
     public void registeredSubscribersCallOrder() {
         TestEventListenerOrder listener = new TestEventListenerOrder();
@@ -197,6 +1234,19 @@ public class EventBusTest {
         assertEquals(3, listener.callCount);
     }
 
+    @Test
+    public void cancelledEventSkipsToIgnoringSubscriber() {
+        TestSkipCancelledListener listener = new TestSkipCancelledListener();
+        bus.register(listener);
+
+        assertTrue(bus.fire(new TestCancellableEvent()).success());
+        assertEquals(2, listener.callCount);
+
+        List<TestCancellableEvent> events = Arrays.asList(new TestCancellableEvent(), new TestCancellableEvent());
+        assertTrue(bus.fireAllSilently(events, true).success());
+        assertEquals(6, listener.callCount);
+    }
+
     static class TestEvent implements Event {
         static int createdInstances = 0;
 
@@ -207,6 +1257,22 @@ public class EventBusTest {
 
     static final class TestChildEvent extends TestEvent {}
 
+    static final class TestAsyncEvent implements AsyncEvent {}
+
+    static final class TestKeyedEvent implements Event {
+        final String key;
+        final int sequence;
+
+        TestKeyedEvent(String key) {
+            this(key, 0);
+        }
+
+        TestKeyedEvent(String key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+
     static final class CountConsumer<E extends Event> implements Consumer<E> {
         int invokeCalls = 0;
 
@@ -250,6 +1316,55 @@ public class EventBusTest {
         }
     }
 
+    static final class IndexedListener {
+        int indexCalls;
+        int reflectionCalls;
+
+        @Subscribe
+        public void reflected(TestEvent event) {
+            reflectionCalls++;
+        }
+    }
+
+    static final class OffThreadListener {
+        private final CountDownLatch called;
+        volatile Thread thread;
+
+        OffThreadListener(CountDownLatch called) {
+            this.called = called;
+        }
+
+        @Subscribe(postOrder = PostOrder.LAST, offThread = true)
+        public void monitor(TestEvent event) {
+            thread = Thread.currentThread();
+            called.countDown();
+        }
+    }
+
+    static final class FilteredListener {
+        final List<String> calls = new ArrayList<>();
+
+        @Subscribe(filter = ShortKeyFilter.class)
+        public void first(TestKeyedEvent event) {
+            calls.add("first");
+        }
+
+        @Subscribe(filter = ShortKeyFilter.class, postOrder = PostOrder.LATE)
+        public void second(TestKeyedEvent event) {
+            calls.add("second");
+        }
+    }
+
+    static final class ShortKeyFilter implements Predicate<TestKeyedEvent> {
+        static int tests;
+
+        @Override
+        public boolean test(TestKeyedEvent event) {
+            tests++;
+            return event.key.length() == 1;
+        }
+    }
+
     static final class TestEventListenerOrder {
         private PostOrder lastCalled = null;
 
@@ -316,10 +1431,42 @@ public class EventBusTest {
         }
     }
 
+    static final class TestSkipCancelledListener {
+        int callCount;
+
+        @Subscribe(postOrder = PostOrder.FIRST)
+        public void firstCancelEvent(TestCancellableEvent event) {
+            callCount++;
+            event.setCancelled(true);
+        }
+
+        @Subscribe
+        public void normalShouldIgnore(TestCancellableEvent event) {
+            fail("Event should be cancelled");
+        }
+
+        @Subscribe(postOrder = PostOrder.LATE)
+        public void lateShouldIgnore(TestCancellableEvent event) {
+            fail("Event should be cancelled");
+        }
+
+        @Subscribe(postOrder = PostOrder.LAST, ignoreCancelled = true)
+        public void lastIgnoreCancelled(TestCancellableEvent event) {
+            callCount++;
+            assertTrue(event.isCancelled());
+        }
+    }
+
     static final class TestBusImpl extends EventBusImpl<Object, TestSubscriberImpl<?>> {
         int createdMethodSubscriptions = 0;
         int createdConsumerSubscriptions = 0;
 
+        TestBusImpl() {}
+
+        TestBusImpl(BusOptions options) {
+            super(options);
+        }
+
         @Override
         @SuppressWarnings("unchecked")
         protected <L, T, B extends Subscriber<T>> B makeSubscription(
@@ -345,6 +1492,67 @@ public class EventBusTest {
                 @NonNull Object listener, TriConsumer<Class<T>, Subscribe, BiConsumer<Object, T>> consumer) {
             super.findSubscriptions(listener, consumer);
         }
+
+        @Override
+        public <T> void register(Class<T> eventClass, TestSubscriberImpl<?> subscriber) {
+            super.register(eventClass, subscriber);
+        }
+
+        @Override
+        public <T> void register(
+                Class<T> eventClass,
+                TestSubscriberImpl<?> subscriber,
+                Function<? super T, ?> keyExtractor,
+                Object key) {
+            super.register(eventClass, subscriber, keyExtractor, key);
+        }
+    }
+
+    static final class TestOwnedBusImpl
+            extends OwnedEventBusImpl<String, Object, TestOwnedSubscriberImpl<? extends Object>> {
+        TestOwnedBusImpl() {}
+
+        TestOwnedBusImpl(BusOptions options) {
+            super(options);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <L, T, B extends OwnedSubscriber<String, T>> B makeSubscription(
+                @NonNull String owner,
+                @NonNull Class<T> eventClass,
+                @NonNull Subscribe subscribe,
+                @NonNull L listener,
+                @NonNull BiConsumer<L, T> handler) {
+            return (B) new TestOwnedSubscriberImpl<>(
+                    owner, eventClass, subscribe.postOrder(), subscribe.ignoreCancelled(), listener, handler);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T, B extends OwnedSubscriber<String, T>> B makeSubscription(
+                @NonNull String owner,
+                @NonNull Class<T> eventClass,
+                @NonNull Consumer<T> handler,
+                @NonNull PostOrder postOrder) {
+            return (B) new TestOwnedSubscriberImpl<>(owner, eventClass, handler, postOrder);
+        }
+    }
+
+    static final class TestOwnedSubscriberImpl<E> extends OwnedSubscriberImpl<String, E> {
+        TestOwnedSubscriberImpl(String owner, Class<E> eventClass, Consumer<E> handler, PostOrder postOrder) {
+            super(owner, eventClass, handler, postOrder);
+        }
+
+        <H> TestOwnedSubscriberImpl(
+                String owner,
+                Class<E> eventClass,
+                PostOrder postOrder,
+                boolean ignoreCancelled,
+                H handlerInstance,
+                BiConsumer<H, E> handler) {
+            super(owner, eventClass, postOrder, ignoreCancelled, handlerInstance, handler);
+        }
     }
 
     static final class TestSubscriberImpl<E> extends SubscriberImpl<E> {
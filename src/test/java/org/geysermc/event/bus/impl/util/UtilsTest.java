@@ -25,6 +25,11 @@
 package org.geysermc.event.bus.impl.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -96,6 +101,26 @@ public class UtilsTest {
                 ICancellableTestImpl.class, ICancellableTest.class);
     }
 
+    @Test
+    void hierarchyIsMemoized() {
+        EventHierarchy hierarchy = EventHierarchy.of(TestChildEvent.class, Event.class);
+        assertSame(hierarchy, EventHierarchy.of(TestChildEvent.class, Event.class));
+        assertNotSame(hierarchy, EventHierarchy.of(TestChildEvent.class, Object.class));
+
+        assertEquals(
+                Utils.ancestorsThatUse(TestChildEvent.class, Event.class),
+                new HashSet<>(Arrays.asList(hierarchy.ancestors())));
+        assertTrue(hierarchy.contains(TestEvent.class));
+        assertFalse(hierarchy.contains(Event.class));
+        assertFalse(hierarchy.cancellable());
+        assertTrue(EventHierarchy.of(AbstractCancellableTestEvent.class, Event.class).cancellable());
+    }
+
+    @Test
+    void subscriberIndexOfAnotherListenerIsIgnored() {
+        assertNull(Utils.subscriberIndex(StaleListener.class));
+    }
+
     private void validateAncestors(Class<?> event, Class<?> base, Class<?>... expected) {
         // use Set for expected because sets don't validate order
         assertEquals(new HashSet<>(Arrays.asList(expected)), Utils.ancestorsThatUse(event, base));
@@ -135,4 +160,6 @@ public class UtilsTest {
 
     static class ICancellableTestImpl extends AbstractCancellable implements ICancellableTest {}
     // endregion base class object specific
+
+    static class StaleListener {}
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.geysermc.event.bus.EventBusTest.TestBusImpl;
+import org.geysermc.event.bus.EventBusTest.TestEvent;
+import org.geysermc.event.bus.impl.BusOptions;
+import org.geysermc.event.bus.impl.util.FlightRecorderEvents;
+import org.geysermc.event.subscribe.Subscribe;
+import org.junit.jupiter.api.Test;
+
+public class FlightRecorderEventsTest {
+    @Test
+    public void nothingIsRecordedWithoutRecording() {
+        assertTrue(FlightRecorderEvents.isSupported());
+        assertNull(FlightRecorderEvents.beginFire());
+        assertNull(FlightRecorderEvents.beginInvoke());
+        assertNull(FlightRecorderEvents.beginTableBuild());
+    }
+
+    @Test
+    public void firesAndInvocationsAreRecorded() throws IOException {
+        TestBusImpl bus = new TestBusImpl(BusOptions.builder().flightRecorderEvents(true).build());
+        bus.subscribe(TestEvent.class, event -> {});
+        bus.subscribe(TestEvent.class, event -> {
+            throw new IllegalStateException();
+        });
+        bus.register(new Listener());
+
+        Path file = Files.createTempFile("events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.geysermc.event.EventFired").withThreshold(Duration.ZERO);
+            recording.enable("org.geysermc.event.SubscriberInvoked").withThreshold(Duration.ZERO);
+            recording.enable("org.geysermc.event.DispatchTableRebuilt").withThreshold(Duration.ZERO);
+            recording.start();
+
+            assertNotNull(FlightRecorderEvents.beginFire());
+            bus.fireSilently(new TestEvent());
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events;
+        try {
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        List<RecordedEvent> fired = named(events, "org.geysermc.event.EventFired");
+        assertEquals(1, fired.size());
+        assertEquals(TestEvent.class.getName(), fired.get(0).getClass("eventClass").getName());
+        assertEquals(3, fired.get(0).getInt("subscriberCount"));
+
+        List<RecordedEvent> invoked = named(events, "org.geysermc.event.SubscriberInvoked");
+        assertEquals(3, invoked.size());
+        assertEquals(1, invoked.stream().filter(event -> event.getBoolean("threw")).count());
+        // the listener, or the class that declares the lambda
+        List<String> listenerClasses = invoked.stream()
+                .map(event -> event.getClass("listenerClass").getName())
+                .collect(Collectors.toList());
+        assertTrue(listenerClasses.contains(Listener.class.getName()));
+        assertTrue(listenerClasses.stream()
+                .allMatch(name -> name.startsWith(FlightRecorderEventsTest.class.getName())));
+
+        assertEquals(1, named(events, "org.geysermc.event.DispatchTableRebuilt").size());
+    }
+
+    public static final class Listener {
+        @Subscribe
+        public void onEvent(TestEvent event) {}
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+}
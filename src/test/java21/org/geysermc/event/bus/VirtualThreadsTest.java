@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022-2026 GeyserMC <https://geysermc.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Events
+ */
+package org.geysermc.event.bus;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.geysermc.event.bus.EventBusTest.TestBusImpl;
+import org.geysermc.event.bus.EventBusTest.TestEvent;
+import org.geysermc.event.bus.impl.BusOptions;
+import org.geysermc.event.bus.impl.util.VirtualThreads;
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadsTest {
+    @Test
+    public void asyncFiresRunOnVirtualThreads() throws Exception {
+        assertTrue(VirtualThreads.isSupported());
+
+        TestBusImpl bus = new TestBusImpl(BusOptions.builder().virtualThreadsIfSupported().build());
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        bus.subscribe(TestEvent.class, event -> thread.set(Thread.currentThread()));
+
+        assertTrue(bus.fireAsync(new TestEvent()).get(5, TimeUnit.SECONDS).success());
+        assertTrue(thread.get().isVirtual());
+        assertTrue(thread.get().getName().startsWith("event-bus-async-"));
+    }
+}